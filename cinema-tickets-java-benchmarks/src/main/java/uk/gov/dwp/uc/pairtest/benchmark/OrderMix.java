@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pre-built order populations, one per branch of {@code TicketServiceImpl.purchaseTickets}.
+ * Orders are created up front so the benchmark measures the service, not the fixture.
+ */
+public enum OrderMix {
+
+    /** Typical family order: two adults, one child, one infant. */
+    VALID_FAMILY {
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            return new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                    new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1),
+                    new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)
+            };
+        }
+    },
+
+    /** Valid orders of 1 to 25 tickets spread across the three ticket types. */
+    VALID_1_TO_25 {
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            int total = 1 + random.nextInt(25);
+            int adults = 1 + random.nextInt(total);
+            int children = random.nextInt(total - adults + 1);
+            int infants = total - adults - children;
+            return new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketTypeRequest.Type.ADULT, adults),
+                    new TicketTypeRequest(TicketTypeRequest.Type.CHILD, children),
+                    new TicketTypeRequest(TicketTypeRequest.Type.INFANT, infants)
+            };
+        }
+    },
+
+    /** Rejected: account ID is not positive. */
+    INVALID_ACCOUNT {
+        @Override
+        long accountId(SplittableRandom random) {
+            return -random.nextInt(1_000);
+        }
+
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            return VALID_FAMILY.order(random);
+        }
+    },
+
+    /** Rejected: no tickets at all. */
+    EMPTY {
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            return new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 0)
+            };
+        }
+    },
+
+    /** Rejected: children and infants without an adult. */
+    NO_ADULT {
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            return new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1 + random.nextInt(10)),
+                    new TicketTypeRequest(TicketTypeRequest.Type.INFANT, random.nextInt(3))
+            };
+        }
+    },
+
+    /** Rejected: more than 25 tickets. */
+    TOO_MANY {
+        @Override
+        TicketTypeRequest[] order(SplittableRandom random) {
+            return new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 20 + random.nextInt(10)),
+                    new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 6 + random.nextInt(10))
+            };
+        }
+    };
+
+    long accountId(SplittableRandom random) {
+        return 1 + random.nextInt(1_000_000);
+    }
+
+    abstract TicketTypeRequest[] order(SplittableRandom random);
+}
@@ -0,0 +1,125 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.Order;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link TicketServiceImpl#purchaseTickets(Long, TicketTypeRequest...)} with one {@link OrderMix}
+ * per run, against third-party stubs with configurable latency. {@code singleThreadedPackedOrder} runs the
+ * same orders through the packed {@link Order} entry point.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PurchaseTicketsBenchmark {
+
+    // Power of two so the cursor can wrap with a mask.
+    private static final int ORDERS = 1 << 10;
+
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        @Param({"VALID_FAMILY", "VALID_1_TO_25", "INVALID_ACCOUNT", "EMPTY", "NO_ADULT", "TOO_MANY"})
+        OrderMix mix;
+
+        @Param({"0"})
+        long paymentLatencyMicros;
+
+        @Param({"0"})
+        long reservationLatencyMicros;
+
+        TicketServiceImpl ticketService;
+        long[] accountIds;
+        TicketTypeRequest[][] orders;
+        long[] packedOrders;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ticketService = new TicketServiceImpl(
+                    new StubTicketPaymentService(TimeUnit.MICROSECONDS.toNanos(paymentLatencyMicros)),
+                    new StubSeatReservationService(TimeUnit.MICROSECONDS.toNanos(reservationLatencyMicros)));
+
+            SplittableRandom random = new SplittableRandom(42);
+            accountIds = new long[ORDERS];
+            orders = new TicketTypeRequest[ORDERS][];
+            packedOrders = new long[ORDERS];
+            for (int i = 0; i < ORDERS; i++) {
+                accountIds[i] = mix.accountId(random);
+                orders[i] = mix.order(random);
+                packedOrders[i] = Order.of(orders[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Spread threads across the order population.
+            next = (int) Thread.currentThread().getId() * 31;
+        }
+
+        int advance() {
+            return next++ & (ORDERS - 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThreaded(Service service, Cursor cursor, Blackhole blackhole) {
+        purchase(service, cursor.advance(), blackhole);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void multiThreaded(Service service, Cursor cursor, Blackhole blackhole) {
+        purchase(service, cursor.advance(), blackhole);
+    }
+
+    /**
+     * The same orders through {@link TicketServiceImpl#purchaseOrder(long, long)}: no boxed account id and no
+     * request objects.
+     */
+    @Benchmark
+    @Threads(1)
+    public void singleThreadedPackedOrder(Service service, Cursor cursor, Blackhole blackhole) {
+        int index = cursor.advance();
+        try {
+            service.ticketService.purchaseOrder(service.accountIds[index], service.packedOrders[index]);
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    private static void purchase(Service service, int index, Blackhole blackhole) {
+        try {
+            service.ticketService.purchaseTickets(service.accountIds[index], service.orders[index]);
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+}
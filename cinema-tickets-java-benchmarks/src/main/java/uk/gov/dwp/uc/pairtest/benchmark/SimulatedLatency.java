@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Burns a fixed amount of wall-clock time to stand in for a third-party round trip.
+ */
+final class SimulatedLatency {
+
+    // Below this the scheduler cannot wake a parked thread accurately, so spin instead.
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+
+    private SimulatedLatency() {
+    }
+
+    static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        if (nanos >= SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(nanos);
+            return;
+        }
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
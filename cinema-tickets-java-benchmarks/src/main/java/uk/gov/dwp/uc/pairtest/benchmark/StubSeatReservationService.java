@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Seat reservation stand-in whose round-trip latency can be set per benchmark run.
+ */
+public class StubSeatReservationService implements SeatReservationService {
+
+    private final long latencyNanos;
+
+    public StubSeatReservationService(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        SimulatedLatency.pause(latencyNanos);
+    }
+
+}
@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Payment gateway stand-in whose round-trip latency can be set per benchmark run.
+ */
+public class StubTicketPaymentService implements TicketPaymentService {
+
+    private final long latencyNanos;
+
+    public StubTicketPaymentService(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        SimulatedLatency.pause(latencyNanos);
+    }
+
+}
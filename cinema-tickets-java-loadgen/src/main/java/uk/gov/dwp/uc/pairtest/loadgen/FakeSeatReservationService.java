@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Seat reservation stand-in driven by a {@link SimulatedDependency}.
+ */
+public class FakeSeatReservationService implements SeatReservationService {
+
+    private final SimulatedDependency seats;
+
+    public FakeSeatReservationService(SimulatedDependency seats) {
+        this.seats = seats;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        seats.call();
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        seats.call();
+    }
+
+}
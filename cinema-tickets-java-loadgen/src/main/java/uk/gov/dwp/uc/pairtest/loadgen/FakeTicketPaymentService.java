@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Payment gateway stand-in driven by a {@link SimulatedDependency}.
+ */
+public class FakeTicketPaymentService implements TicketPaymentService {
+
+    private final SimulatedDependency gateway;
+
+    public FakeTicketPaymentService(SimulatedDependency gateway) {
+        this.gateway = gateway;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        gateway.call();
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        gateway.call();
+    }
+
+}
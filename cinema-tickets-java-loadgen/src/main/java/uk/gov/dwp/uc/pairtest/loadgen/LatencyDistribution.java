@@ -0,0 +1,61 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How long a simulated third-party call takes. Written on the command line as one of
+ * {@code fixed:2ms}, {@code uniform:1ms-5ms} or {@code lognormal:2ms,40ms} (median, then 99th percentile).
+ */
+public interface LatencyDistribution {
+
+    // Standard normal quantile at 0.99.
+    double Z_99 = 2.3263;
+
+    long sampleNanos(ThreadLocalRandom random);
+
+    static LatencyDistribution fixed(long nanos) {
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(long minNanos, long maxNanos) {
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Uniform latency needs min <= max.");
+        }
+        return random -> minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+    }
+
+    /**
+     * Long-tailed, like most network calls: half of the calls are faster than {@code medianNanos}
+     * and one in a hundred is slower than {@code p99Nanos}.
+     */
+    static LatencyDistribution logNormal(long medianNanos, long p99Nanos) {
+        if (medianNanos <= 0 || p99Nanos < medianNanos) {
+            throw new IllegalArgumentException("Log-normal latency needs 0 < median <= p99.");
+        }
+        double mu = Math.log(medianNanos);
+        double sigma = (Math.log(p99Nanos) - mu) / Z_99;
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    static LatencyDistribution parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Latency must look like fixed:2ms, uniform:1ms-5ms "
+                    + "or lognormal:2ms,40ms, not '" + spec + "'.");
+        }
+        String kind = spec.substring(0, colon);
+        String values = spec.substring(colon + 1);
+        switch (kind) {
+            case "fixed":
+                return fixed(LoadGenerator.parseNanos(values));
+            case "uniform":
+                String[] range = values.split("-", 2);
+                return uniform(LoadGenerator.parseNanos(range[0]), LoadGenerator.parseNanos(range[1]));
+            case "lognormal":
+                String[] shape = values.split(",", 2);
+                return logNormal(LoadGenerator.parseNanos(shape[0]), LoadGenerator.parseNanos(shape[1]));
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution '" + kind + "'.");
+        }
+    }
+}
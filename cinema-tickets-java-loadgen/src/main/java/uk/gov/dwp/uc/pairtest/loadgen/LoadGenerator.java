@@ -0,0 +1,134 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of loadgen.jar: runs {@link TicketServiceImpl} against simulated third-party services at a fixed
+ * request rate and prints a latency report. Options, all of the form {@code --name=value}:
+ * <pre>
+ *   --rps=1000                        requests per second
+ *   --duration=60s --warmup=10s       measured period, and unmeasured lead-in
+ *   --threads=64                      threads making requests
+ *   --payment-latency=lognormal:2ms,40ms   fixed:, uniform:min-max or lognormal:median,p99
+ *   --payment-failure-rate=0.001
+ *   --payment-stall=0.0001:2s         probability and length of a stall
+ *   --seat-latency, --seat-failure-rate, --seat-stall   the same for seat reservation
+ *   --invalid-ratio=0.05              share of orders the rules reject
+ *   --report=load-report.txt          also write the report to a file
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final int ORDER_POOL_SIZE = 4096;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Map<String, String> options = parse(args);
+
+        SimulatedDependency payments = dependency("payment", options, "lognormal:2ms,40ms");
+        SimulatedDependency seats = dependency("seat", options, "lognormal:1ms,20ms");
+        TicketService service = new TicketServiceImpl(
+                new FakeTicketPaymentService(payments), new FakeSeatReservationService(seats));
+
+        double invalidRatio = Double.parseDouble(options.getOrDefault("invalid-ratio", "0"));
+        TicketTypeRequest[][] orders = orders(invalidRatio, new SplittableRandom(42));
+
+        OpenLoopDriver driver = new OpenLoopDriver(
+                i -> service.purchaseTickets(1 + i % 1_000_000, orders[(int) (i % ORDER_POOL_SIZE)]),
+                Double.parseDouble(options.getOrDefault("rps", "1000")),
+                parseNanos(options.getOrDefault("warmup", "10s")),
+                parseNanos(options.getOrDefault("duration", "60s")),
+                Integer.parseInt(options.getOrDefault("threads", "64")),
+                System.out);
+
+        LoadReport report = driver.run(DRAIN_TIMEOUT_NANOS).with(payments).with(seats);
+        System.out.println();
+        System.out.print(report.render());
+        if (options.containsKey("report")) {
+            Path file = Paths.get(options.get("report"));
+            report.writeTo(file);
+            System.out.println("Report written to " + file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Reads a duration such as {@code 250us}, {@code 2ms}, {@code 1.5s} or {@code 5m} as nanoseconds.
+     */
+    static long parseNanos(String text) {
+        String value = text.trim();
+        int unitAt = 0;
+        while (unitAt < value.length() && (Character.isDigit(value.charAt(unitAt)) || value.charAt(unitAt) == '.')) {
+            unitAt++;
+        }
+        double amount = Double.parseDouble(value.substring(0, unitAt));
+        switch (value.substring(unitAt)) {
+            case "ns":
+                return (long) amount;
+            case "us":
+                return (long) (amount * 1e3);
+            case "ms":
+                return (long) (amount * 1e6);
+            case "s":
+                return (long) (amount * 1e9);
+            case "m":
+                return (long) (amount * 60e9);
+            default:
+                throw new IllegalArgumentException("Durations need a unit of ns, us, ms, s or m: '" + text + "'.");
+        }
+    }
+
+    private static SimulatedDependency dependency(String name, Map<String, String> options, String defaultLatency) {
+        LatencyDistribution latency = LatencyDistribution.parse(
+                options.getOrDefault(name + "-latency", defaultLatency));
+        double failureRate = Double.parseDouble(options.getOrDefault(name + "-failure-rate", "0"));
+        String[] stall = options.getOrDefault(name + "-stall", "0:0s").split(":", 2);
+        return new SimulatedDependency(name, latency, failureRate, Double.parseDouble(stall[0]), parseNanos(stall[1]));
+    }
+
+    /**
+     * Orders are built up front so the generator does not compete with the service for allocation.
+     */
+    private static TicketTypeRequest[][] orders(double invalidRatio, SplittableRandom random) {
+        TicketTypeRequest[][] orders = new TicketTypeRequest[ORDER_POOL_SIZE][];
+        for (int i = 0; i < ORDER_POOL_SIZE; i++) {
+            if (random.nextDouble() < invalidRatio) {
+                // Children without an adult
+                orders[i] = new TicketTypeRequest[] {
+                        TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 1 + random.nextInt(4))
+                };
+                continue;
+            }
+            int total = 1 + random.nextInt(8);
+            int adults = 1 + random.nextInt(total);
+            int children = random.nextInt(total - adults + 1);
+            orders[i] = new TicketTypeRequest[] {
+                    TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, adults),
+                    TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, children),
+                    TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, total - adults - children)
+            };
+        }
+        return orders;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Options look like --name=value, not '" + arg + "'.");
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,128 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import uk.gov.dwp.uc.pairtest.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link OpenLoopDriver} run over its measured period.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 100};
+
+    private final double targetRps;
+    private final long durationNanos;
+    private final long sent;
+    private final long succeeded;
+    private final long rejected;
+    private final long failed;
+    private final long unfinished;
+    private final LatencyHistogram corrected;
+    private final LatencyHistogram uncorrected;
+    private final List<SimulatedDependency> dependencies = new ArrayList<>();
+
+    public LoadReport(double targetRps, long durationNanos, long sent, long succeeded, long rejected, long failed,
+                      long unfinished, LatencyHistogram corrected, LatencyHistogram uncorrected) {
+        this.targetRps = targetRps;
+        this.durationNanos = durationNanos;
+        this.sent = sent;
+        this.succeeded = succeeded;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.unfinished = unfinished;
+        this.corrected = corrected;
+        this.uncorrected = uncorrected;
+    }
+
+    /**
+     * Adds the dependency's call, failure and stall counts to the report.
+     */
+    public LoadReport with(SimulatedDependency dependency) {
+        dependencies.add(dependency);
+        return this;
+    }
+
+    public double achievedRps() {
+        return (succeeded + rejected + failed) / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Latency from when a request was due, in nanoseconds. This is the one to plan capacity with.
+     */
+    public long correctedPercentile(double percentile) {
+        return corrected.percentile(percentile);
+    }
+
+    public long uncorrectedPercentile(double percentile) {
+        return uncorrected.percentile(percentile);
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        line(out, "Target rate       %.1f req/s", targetRps);
+        line(out, "Achieved rate     %.1f req/s", achievedRps());
+        line(out, "Measured for      %.1f s", durationNanos / 1e9);
+        line(out, "Sent              %d", sent);
+        line(out, "  succeeded       %d", succeeded);
+        line(out, "  rejected        %d", rejected);
+        line(out, "  failed          %d", failed);
+        line(out, "  unfinished      %d", unfinished);
+        for (SimulatedDependency dependency : dependencies) {
+            line(out, "%-17s %d calls, %d failed, %d stalled", dependency.getName(), dependency.calls(),
+                    dependency.failures(), dependency.stalls());
+        }
+        out.append(System.lineSeparator());
+        line(out, "%-10s %16s %16s", "Latency", "from due (ms)", "from start (ms)");
+        for (double percentile : PERCENTILES) {
+            String label = percentile == 100 ? "max" : "p" + trim(percentile);
+            line(out, "%-10s %16.3f %16.3f", label, corrected.percentile(percentile) / 1e6,
+                    uncorrected.percentile(percentile) / 1e6);
+        }
+        return out.toString();
+    }
+
+    public void writeTo(Path file) throws IOException {
+        Files.write(file, render().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+
+    private static void line(StringBuilder out, String format, Object... args) {
+        out.append(String.format(Locale.ROOT, format, args)).append(System.lineSeparator());
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
@@ -0,0 +1,157 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Sends requests on a fixed schedule, whatever the system under test is doing: request {@code i} is due at
+ * {@code start + i / rps}. This is an open model, like real customers at an on-sale, who do not wait for each
+ * other. A slow system builds a queue instead of slowing the load down.
+ * <p>
+ * Latency is measured from when a request was due, not from when a worker got round to it, so time spent queued
+ * behind a stall is counted. Measuring from the actual start as well shows how much a closed-loop tool would hide.
+ * Requests still unfinished when the drain times out are recorded as taking until then, so a stall that outlasts
+ * the run still shows in the tail instead of vanishing from it.
+ */
+public class OpenLoopDriver {
+
+    private final LongConsumer request;
+    private final double rps;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final int threads;
+    private final PrintStream progress;
+
+    private final LatencyHistogram corrected = new LatencyHistogram();
+    private final LatencyHistogram uncorrected = new LatencyHistogram();
+    private final LatencyHistogram interval = new LatencyHistogram();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // Due times of measured requests that have not finished, by sequence. Whoever removes one records it.
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param request  makes request number {@code i}; an {@link InvalidPurchaseException} counts as rejected and
+     *                 any other exception as failed
+     * @param progress where to print a line a second, or {@code null} for none
+     */
+    public OpenLoopDriver(LongConsumer request, double rps, long warmupNanos, long durationNanos, int threads,
+                          PrintStream progress) {
+        if (rps <= 0 || durationNanos <= 0 || warmupNanos < 0 || threads <= 0) {
+            throw new IllegalArgumentException("Need a positive rate, duration and thread count.");
+        }
+        this.request = request;
+        this.rps = rps;
+        this.warmupNanos = warmupNanos;
+        this.durationNanos = durationNanos;
+        this.threads = threads;
+        this.progress = progress;
+    }
+
+    /**
+     * Runs the warm-up and the measured period, waits up to {@code drainTimeoutNanos} for queued requests to
+     * finish, and reports on the measured period.
+     */
+    public LoadReport run(long drainTimeoutNanos) throws InterruptedException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), workerThreads());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+        long nextProgressAt = startedAt + TimeUnit.SECONDS.toNanos(1);
+        long sent = 0;
+
+        try {
+            for (long i = 0; ; i++) {
+                long dueAt = startedAt + (long) (i * intervalNanos);
+                if (dueAt >= stopAt) {
+                    break;
+                }
+                for (long now = System.nanoTime(); now < dueAt; now = System.nanoTime()) {
+                    LockSupport.parkNanos(dueAt - now);
+                }
+                long sequence = i;
+                boolean measured = dueAt >= measureFrom;
+                if (measured) {
+                    pending.put(sequence, dueAt);
+                    sent++;
+                }
+                workers.execute(() -> send(sequence, dueAt, measured));
+                if (progress != null && dueAt >= nextProgressAt) {
+                    printProgress(dueAt - startedAt, workers.getQueue().size());
+                    nextProgressAt += TimeUnit.SECONDS.toNanos(1);
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+        workers.awaitTermination(drainTimeoutNanos, TimeUnit.NANOSECONDS);
+        long unfinished = recordUnfinished(System.nanoTime());
+        workers.shutdownNow(); // Only after, so an interrupted request cannot pass for a finished one
+
+        return new LoadReport(rps, durationNanos, sent, succeeded.sum(), rejected.sum(), failed.sum(), unfinished,
+                corrected, uncorrected);
+    }
+
+    private void send(long sequence, long dueAt, boolean measured) {
+        long startedAt = System.nanoTime();
+        LongAdder outcome;
+        try {
+            request.accept(sequence);
+            outcome = succeeded;
+        } catch (InvalidPurchaseException e) {
+            outcome = rejected;
+        } catch (RuntimeException e) {
+            outcome = failed;
+        }
+        long finishedAt = System.nanoTime();
+        interval.record(finishedAt - dueAt);
+        if (measured && pending.remove(sequence) != null) {
+            corrected.record(finishedAt - dueAt);
+            uncorrected.record(finishedAt - startedAt);
+            outcome.increment();
+        }
+    }
+
+    private long recordUnfinished(long gaveUpAt) {
+        long unfinished = 0;
+        for (Long sequence : pending.keySet()) {
+            Long dueAt = pending.remove(sequence);
+            if (dueAt != null) {
+                corrected.record(gaveUpAt - dueAt);
+                unfinished++;
+            }
+        }
+        return unfinished;
+    }
+
+    private void printProgress(long elapsedNanos, int queued) {
+        progress.printf("%5ds  done=%d  queued=%d  p50=%.2fms  p99=%.2fms  max=%.2fms%n",
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), interval.count(), queued,
+                interval.percentile(50) / 1e6, interval.percentile(99) / 1e6, interval.percentile(100) / 1e6);
+        interval.reset();
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
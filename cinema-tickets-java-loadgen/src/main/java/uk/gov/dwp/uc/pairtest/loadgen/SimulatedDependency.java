@@ -0,0 +1,80 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stands in for one third-party service. Each call waits for a latency drawn from the distribution, then fails
+ * with probability {@code failureRate}. With probability {@code stallRate} a call instead hangs for
+ * {@code stallNanos}, as a service does during a GC pause or a dropped connection.
+ */
+public class SimulatedDependency {
+
+    // Below this the scheduler cannot wake a parked thread accurately, so spin instead.
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+
+    private final String name;
+    private final LatencyDistribution latency;
+    private final double failureRate;
+    private final double stallRate;
+    private final long stallNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    public SimulatedDependency(String name, LatencyDistribution latency, double failureRate,
+                               double stallRate, long stallNanos) {
+        if (failureRate < 0 || failureRate > 1 || stallRate < 0 || stallRate > 1) {
+            throw new IllegalArgumentException("Failure and stall rates must be between 0 and 1.");
+        }
+        this.name = name;
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.stallRate = stallRate;
+        this.stallNanos = stallNanos;
+    }
+
+    public void call() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        calls.increment();
+        if (random.nextDouble() < stallRate) {
+            stalls.increment();
+            pause(stallNanos);
+        } else {
+            pause(latency.sampleNanos(random));
+        }
+        if (random.nextDouble() < failureRate) {
+            failures.increment();
+            throw new IllegalStateException("Simulated " + name + " failure");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long stalls() {
+        return stalls.sum();
+    }
+
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+            if (left >= SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(left);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.*;
+
+public class LatencyDistributionTest {
+
+    private static long[] sorted(LatencyDistribution distribution, int samples) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] values = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            values[i] = distribution.sampleNanos(random);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    @Test
+    public void testEachKindIsParsed() {
+        // When
+        long[] fixed = sorted(LatencyDistribution.parse("fixed:2ms"), 100);
+        long[] uniform = sorted(LatencyDistribution.parse("uniform:1ms-5ms"), 10_000);
+
+        // Then
+        assertEquals(2_000_000L, fixed[0]);
+        assertEquals(2_000_000L, fixed[fixed.length - 1]);
+        assertTrue(uniform[0] >= 1_000_000L);
+        assertTrue(uniform[uniform.length - 1] < 5_000_000L);
+        assertNotNull(LatencyDistribution.parse("lognormal:2ms,40ms"));
+    }
+
+    @Test
+    public void testMalformedSpecsAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("2ms"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:2ms"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("uniform:5ms-1ms"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("lognormal:40ms,2ms"));
+    }
+
+    @Test
+    public void testLogNormalMatchesItsMedianAndP99() {
+        // When
+        long[] samples = sorted(LatencyDistribution.logNormal(2_000_000L, 40_000_000L), 200_000);
+
+        // Then: within a few percent, allowing for sampling noise
+        double median = samples[samples.length / 2];
+        double p99 = samples[(int) (samples.length * 0.99)];
+        assertEquals(2_000_000.0, median, 2_000_000.0 * 0.03);
+        assertEquals(40_000_000.0, p99, 40_000_000.0 * 0.08);
+    }
+
+}
@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void testDurationsAreReadInEveryUnit() {
+        assertEquals(250L, LoadGenerator.parseNanos("250ns"));
+        assertEquals(90_000L, LoadGenerator.parseNanos("90us"));
+        assertEquals(1_500_000L, LoadGenerator.parseNanos("1.5ms"));
+        assertEquals(2_000_000_000L, LoadGenerator.parseNanos(" 2s "));
+        assertEquals(180_000_000_000L, LoadGenerator.parseNanos("3m"));
+    }
+
+    @Test
+    public void testDurationWithoutAKnownUnitIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseNanos("10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseNanos("10h"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseNanos("ms"));
+    }
+
+}
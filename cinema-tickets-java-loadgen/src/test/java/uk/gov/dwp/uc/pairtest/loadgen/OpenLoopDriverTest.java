@@ -0,0 +1,85 @@
+package uk.gov.dwp.uc.pairtest.loadgen;
+
+import org.junit.Test;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OpenLoopDriverTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testEveryRequestOnTheScheduleIsSentOnce() throws InterruptedException {
+        // Given: 2000 req/s for 100ms is one request due every half millisecond
+        ConcurrentLinkedQueue<Long> seen = new ConcurrentLinkedQueue<>();
+        OpenLoopDriver driver = new OpenLoopDriver(seen::add, 2000, 0, 100 * MILLIS, 2, null);
+
+        // When
+        LoadReport report = driver.run(TimeUnit.SECONDS.toNanos(5));
+
+        // Then
+        List<Long> sequences = new ArrayList<>(seen);
+        sequences.sort(null);
+        assertEquals(200, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(Long.valueOf(i), sequences.get(i));
+        }
+        assertEquals(200, report.getSent());
+        assertEquals(200, report.getSucceeded());
+        assertEquals(0, report.getUnfinished());
+    }
+
+    @Test
+    public void testOutcomesAreCountedOnlyAfterTheWarmup() throws InterruptedException {
+        // Given: one request a millisecond, 20 in the warm-up and 30 measured; odd ones fail, even ones are rejected
+        OpenLoopDriver driver = new OpenLoopDriver(sequence -> {
+            if (sequence % 2 == 0) {
+                throw new InvalidPurchaseException("Rejected");
+            }
+            throw new IllegalStateException("Failed");
+        }, 1000, 20 * MILLIS, 30 * MILLIS, 2, null);
+
+        // When
+        LoadReport report = driver.run(TimeUnit.SECONDS.toNanos(5));
+
+        // Then
+        assertEquals(30, report.getSent());
+        assertEquals(0, report.getSucceeded());
+        assertEquals(15, report.getRejected());
+        assertEquals(15, report.getFailed());
+    }
+
+    @Test
+    public void testUnfinishedRequestIsRecordedUntilTheDrainGivesUp() throws InterruptedException {
+        // Given: the only request never returns
+        CountDownLatch released = new CountDownLatch(1);
+        OpenLoopDriver driver = new OpenLoopDriver(sequence -> {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 100, 0, 10 * MILLIS, 1, null);
+
+        // When
+        LoadReport report;
+        try {
+            report = driver.run(100 * MILLIS);
+        } finally {
+            released.countDown();
+        }
+
+        // Then: it counts in the tail, not as a success
+        assertEquals(1, report.getUnfinished());
+        assertEquals(0, report.getSucceeded());
+        assertTrue(report.correctedPercentile(100) >= 100 * MILLIS);
+    }
+
+}
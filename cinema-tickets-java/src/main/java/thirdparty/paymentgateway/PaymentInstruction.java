@@ -0,0 +1,25 @@
+package thirdparty.paymentgateway;
+
+/**
+ * Immutable Object: one payment within a {@link TicketPaymentService#makePayments} batch.
+ */
+
+public final class PaymentInstruction {
+
+    private final long accountId;
+    private final int totalAmountToPay;
+
+    public PaymentInstruction(long accountId, int totalAmountToPay) {
+        this.accountId = accountId;
+        this.totalAmountToPay = totalAmountToPay;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalAmountToPay() {
+        return totalAmountToPay;
+    }
+
+}
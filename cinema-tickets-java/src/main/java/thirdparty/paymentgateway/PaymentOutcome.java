@@ -0,0 +1,36 @@
+package thirdparty.paymentgateway;
+
+/**
+ * Immutable Object: result of one {@link PaymentInstruction} in a batch.
+ */
+
+public final class PaymentOutcome {
+
+    private static final PaymentOutcome PAID = new PaymentOutcome(null);
+
+    private final RuntimeException failure;
+
+    private PaymentOutcome(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public static PaymentOutcome paid() {
+        return PAID;
+    }
+
+    public static PaymentOutcome failed(RuntimeException failure) {
+        return new PaymentOutcome(failure);
+    }
+
+    public boolean isPaid() {
+        return failure == null;
+    }
+
+    /**
+     * Why the payment was not taken, or {@code null} if it was.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+}
@@ -1,7 +1,62 @@
 package thirdparty.paymentgateway;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface TicketPaymentService {
 
     void makePayment(long accountId, int totalAmountToPay);
 
+    /**
+     * Non-blocking variant of {@link #makePayment(long, int)}. The default runs the blocking call on the
+     * caller's thread; clients backed by an asynchronous transport should override it.
+     */
+    default CompletableFuture<Void> makePaymentAsync(long accountId, int totalAmountToPay) {
+        try {
+            makePayment(accountId, totalAmountToPay);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Takes several payments in one gateway round trip. Returns one outcome per instruction, in order, so a
+     * declined card fails only its own instruction. The default falls back to one call per instruction.
+     */
+    default List<PaymentOutcome> makePayments(List<PaymentInstruction> instructions) {
+        List<PaymentOutcome> outcomes = new ArrayList<>(instructions.size());
+        for (PaymentInstruction instruction : instructions) {
+            try {
+                makePayment(instruction.getAccountId(), instruction.getTotalAmountToPay());
+                outcomes.add(PaymentOutcome.paid());
+            } catch (RuntimeException e) {
+                outcomes.add(PaymentOutcome.failed(e));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Gives back money taken by {@link #makePayment(long, int)}, e.g. when the seats could not be reserved.
+     * Gateways that cannot refund keep the default, which refuses.
+     */
+    default void refundPayment(long accountId, int totalAmountToRefund) {
+        throw new UnsupportedOperationException("This payment gateway does not take refunds.");
+    }
+
+    /**
+     * Non-blocking variant of {@link #refundPayment(long, int)}, with the same default as
+     * {@link #makePaymentAsync(long, int)}.
+     */
+    default CompletableFuture<Void> refundPaymentAsync(long accountId, int totalAmountToRefund) {
+        try {
+            refundPayment(accountId, totalAmountToRefund);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
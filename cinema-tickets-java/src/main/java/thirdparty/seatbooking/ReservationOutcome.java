@@ -0,0 +1,36 @@
+package thirdparty.seatbooking;
+
+/**
+ * Immutable Object: result of one {@link SeatRequest} in a batch.
+ */
+
+public final class ReservationOutcome {
+
+    private static final ReservationOutcome RESERVED = new ReservationOutcome(null);
+
+    private final RuntimeException failure;
+
+    private ReservationOutcome(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public static ReservationOutcome reserved() {
+        return RESERVED;
+    }
+
+    public static ReservationOutcome failed(RuntimeException failure) {
+        return new ReservationOutcome(failure);
+    }
+
+    public boolean isReserved() {
+        return failure == null;
+    }
+
+    /**
+     * Why the seats were not reserved, or {@code null} if they were.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+}
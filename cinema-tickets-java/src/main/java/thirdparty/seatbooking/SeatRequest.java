@@ -0,0 +1,25 @@
+package thirdparty.seatbooking;
+
+/**
+ * Immutable Object: one reservation within a {@link SeatReservationService#reserveSeats} batch.
+ */
+
+public final class SeatRequest {
+
+    private final long accountId;
+    private final int totalSeatsToAllocate;
+
+    public SeatRequest(long accountId, int totalSeatsToAllocate) {
+        this.accountId = accountId;
+        this.totalSeatsToAllocate = totalSeatsToAllocate;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalSeatsToAllocate() {
+        return totalSeatsToAllocate;
+    }
+
+}
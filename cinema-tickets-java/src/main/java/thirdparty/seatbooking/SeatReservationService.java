@@ -1,7 +1,86 @@
 package thirdparty.seatbooking;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface SeatReservationService {
 
     void reserveSeat(long accountId, int totalSeatsToAllocate);
 
+    /**
+     * Non-blocking variant of {@link #reserveSeat(long, int)}. The default runs the blocking call on the
+     * caller's thread; clients backed by an asynchronous transport should override it.
+     */
+    default CompletableFuture<Void> reserveSeatAsync(long accountId, int totalSeatsToAllocate) {
+        try {
+            reserveSeat(accountId, totalSeatsToAllocate);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Reserves seats for several accounts in one round trip. Returns one outcome per request, in order.
+     * The default falls back to one call per request.
+     */
+    default List<ReservationOutcome> reserveSeats(List<SeatRequest> requests) {
+        List<ReservationOutcome> outcomes = new ArrayList<>(requests.size());
+        for (SeatRequest request : requests) {
+            try {
+                reserveSeat(request.getAccountId(), request.getTotalSeatsToAllocate());
+                outcomes.add(ReservationOutcome.reserved());
+            } catch (RuntimeException e) {
+                outcomes.add(ReservationOutcome.failed(e));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Gives back seats taken by {@link #reserveSeat(long, int)}, e.g. when the payment was declined.
+     * Services that cannot release keep the default, which refuses.
+     */
+    default void releaseSeat(long accountId, int totalSeatsToRelease) {
+        throw new UnsupportedOperationException("This seat reservation service does not release seats.");
+    }
+
+    /**
+     * Non-blocking variant of {@link #releaseSeat(long, int)}, with the same default as
+     * {@link #reserveSeatAsync(long, int)}.
+     */
+    default CompletableFuture<Void> releaseSeatAsync(long accountId, int totalSeatsToRelease) {
+        try {
+            releaseSeat(accountId, totalSeatsToRelease);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * First half of a two-phase reservation: sets seats aside for the account for {@code ttl} and returns a
+     * token for {@link #confirmHold(long, long, int)}. Unconfirmed holds give their seats back when they expire.
+     * Services without holds keep the default, which refuses.
+     */
+    default long holdSeats(long accountId, int totalSeatsToHold, Duration ttl) {
+        throw new UnsupportedOperationException("This seat reservation service does not hold seats.");
+    }
+
+    /**
+     * Turns a live hold into a reservation, failing if the hold has expired or does not match.
+     */
+    default void confirmHold(long accountId, long holdToken, int totalSeatsToAllocate) {
+        throw new UnsupportedOperationException("This seat reservation service does not hold seats.");
+    }
+
+    /**
+     * Gives a hold's seats back before it expires. Does nothing if the hold is no longer live.
+     */
+    default void releaseHold(long accountId, long holdToken) {
+        throw new UnsupportedOperationException("This seat reservation service does not hold seats.");
+    }
+
 }
@@ -7,4 +7,9 @@ public class SeatReservationServiceImpl implements SeatReservationService {
         // Real implementation omitted, assume working code will make the seat reservation.
     }
 
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        // Real implementation omitted, assume working code will cancel the seat reservation.
+    }
+
 }
@@ -0,0 +1,83 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.admission.AccountRateLimiter;
+import uk.gov.dwp.uc.pairtest.admission.AdaptiveConcurrencyLimiter;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseThrottledException;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Front end that keeps scripted accounts and on-sale surges off the payment gateway. Each account is held to
+ * its {@link AccountRateLimiter} budget, then the purchase needs a slot from the
+ * {@link AdaptiveConcurrencyLimiter}, which learns how much the downstream services can take from how long
+ * purchases take. Either way a refused purchase fails at once with a {@link PurchaseThrottledException}.
+ */
+public class AdmissionControlledTicketService implements TicketService {
+
+    private final TicketService delegate;
+    private final AccountRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public AdmissionControlledTicketService(TicketService delegate, AccountRateLimiter rateLimiter,
+                                            AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        admit(accountId == null ? 0L : accountId);
+        long startedAt = System.nanoTime();
+        try {
+            delegate.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (RuntimeException | Error e) {
+            release(e, startedAt);
+            throw e;
+        }
+        release(null, startedAt);
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTicketsAsync(long accountId, TicketTypeRequest... ticketTypeRequests) {
+        try {
+            admit(accountId);
+        } catch (PurchaseThrottledException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long startedAt = System.nanoTime();
+        CompletableFuture<PurchaseResult> purchase;
+        try {
+            purchase = delegate.purchaseTicketsAsync(accountId, ticketTypeRequests);
+        } catch (RuntimeException | Error e) {
+            release(e, startedAt);
+            throw e;
+        }
+        return purchase.whenComplete((result, failure) -> release(failure, startedAt));
+    }
+
+    private void admit(long accountId) {
+        long retryAfterNanos = rateLimiter.tryAcquire(accountId);
+        if (retryAfterNanos > 0) {
+            throw new PurchaseThrottledException(InvalidPurchaseReason.RATE_LIMITED, retryAfterNanos);
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new PurchaseThrottledException(InvalidPurchaseReason.OVERLOADED, 0L);
+        }
+    }
+
+    private void release(Throwable failure, long startedAt) {
+        if (failure == null) {
+            concurrencyLimiter.onSuccess(System.nanoTime() - startedAt);
+        } else if (Futures.unwrap(failure) instanceof InvalidPurchaseException) {
+            concurrencyLimiter.onIgnored(); // Rejected before it reached the downstream services
+        } else {
+            concurrencyLimiter.onDropped();
+        }
+    }
+}
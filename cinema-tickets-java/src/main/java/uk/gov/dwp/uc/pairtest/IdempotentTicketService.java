@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.Order;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseThrottledException;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+import uk.gov.dwp.uc.pairtest.util.ExpiringCache;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Front end that makes client retries safe. A purchase carrying an idempotency key runs once; a retry with the
+ * same key, account and order, even while the first attempt is still in flight, gets the first attempt's result
+ * and never reaches the payment or seat services again. Reusing a key for a different order is refused.
+ * <p>
+ * Attempts are remembered for {@code ttl} after they start, and never dropped while still in flight. The only
+ * failures forgotten straight away are those that charged nobody: throttling, and calls a dependency guard shed
+ * without anything left to undo. Any other failure may have come after the payment, so it is replayed like a
+ * success rather than risk charging the customer twice.
+ */
+public class IdempotentTicketService implements TicketService {
+
+    private final TicketService delegate;
+    private final ExpiringCache<String, Attempt> attempts;
+
+    public IdempotentTicketService(TicketService delegate, int maxRememberedPurchases, Duration ttl) {
+        this.delegate = delegate;
+        this.attempts = new ExpiringCache<>(maxRememberedPurchases, ttl, attempt -> !attempt.result.isDone());
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        delegate.purchaseTickets(accountId, ticketTypeRequests);
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTicketsAsync(long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return delegate.purchaseTicketsAsync(accountId, ticketTypeRequests);
+    }
+
+    public PurchaseResult purchaseTickets(String idempotencyKey, long accountId, TicketTypeRequest... ticketTypeRequests)
+            throws InvalidPurchaseException {
+        return Futures.await(purchaseTicketsAsync(idempotencyKey, accountId, ticketTypeRequests));
+    }
+
+    public CompletableFuture<PurchaseResult> purchaseTicketsAsync(String idempotencyKey, long accountId,
+                                                                  TicketTypeRequest... ticketTypeRequests) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("An idempotency key is required."));
+        }
+        // Keys are scoped to the account so one customer's key can never replay another's purchase.
+        String key = accountId + ":" + idempotencyKey;
+        Attempt placeholder = new Attempt(Order.of(ticketTypeRequests));
+        Attempt attempt = attempts.computeIfAbsent(key, k -> placeholder);
+        if (attempt == placeholder) {
+            // First attempt: start it outside the cache lock, since the delegate may block on a downstream call.
+            start(key, placeholder, accountId, ticketTypeRequests);
+        } else if (attempt.order != placeholder.order) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Idempotency key " + idempotencyKey + " was already used for a different order."));
+        }
+        return attempt.result;
+    }
+
+    private void start(String key, Attempt attempt, long accountId, TicketTypeRequest... ticketTypeRequests) {
+        CompletableFuture<PurchaseResult> purchase;
+        try {
+            purchase = delegate.purchaseTicketsAsync(accountId, ticketTypeRequests);
+        } catch (RuntimeException e) {
+            purchase = CompletableFuture.failedFuture(e);
+        }
+        purchase.whenComplete((result, failure) -> {
+            if (failure == null) {
+                attempt.result.complete(result);
+                return;
+            }
+            Throwable cause = Futures.unwrap(failure);
+            if (chargedNobody(cause)) {
+                attempts.remove(key, attempt); // Before completing, so a retry that sees the failure starts afresh
+            }
+            attempt.result.completeExceptionally(cause);
+        });
+    }
+
+    private static boolean chargedNobody(Throwable failure) {
+        if (failure instanceof PurchaseThrottledException) {
+            return true;
+        }
+        if (!(failure instanceof DependencyUnavailableException) || failure.getSuppressed().length > 0) {
+            return false; // A failed compensation is noted as suppressed, leaving something in place
+        }
+        // A timed-out call may still have gone through; a shed one was never made.
+        DependencyUnavailableException.Reason reason = ((DependencyUnavailableException) failure).getReason();
+        return reason != DependencyUnavailableException.Reason.TIMED_OUT;
+    }
+
+    private static final class Attempt {
+
+        // The packed order, so a reused key can be told from a retry.
+        private final long order;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+
+        private Attempt(long order) {
+            this.order = order;
+        }
+    }
+}
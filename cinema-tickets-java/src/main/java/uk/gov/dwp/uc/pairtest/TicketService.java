@@ -1,10 +1,31 @@
 package uk.gov.dwp.uc.pairtest;
 
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface TicketService {
 
     void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException;
 
+    /**
+     * Same rules as {@link #purchaseTickets(Long, TicketTypeRequest...)}, without holding the calling thread
+     * through the payment and reservation round trips. Rejections complete the future exceptionally with
+     * {@link InvalidPurchaseException}.
+     * <p>
+     * By default the blocking purchase runs on the calling thread and the future completes with {@code null},
+     * as the blocking method reports no totals.
+     */
+    default CompletableFuture<PurchaseResult> purchaseTicketsAsync(long accountId,
+                                                                   TicketTypeRequest... ticketTypeRequests) {
+        try {
+            purchaseTickets(accountId, ticketTypeRequests);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
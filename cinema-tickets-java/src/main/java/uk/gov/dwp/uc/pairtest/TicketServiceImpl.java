@@ -2,113 +2,559 @@ package uk.gov.dwp.uc.pairtest;
 
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.Order;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+import uk.gov.dwp.uc.pairtest.seating.SeatAvailability;
+import uk.gov.dwp.uc.pairtest.seating.SeatHoldExpiredException;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+import uk.gov.dwp.uc.pairtest.util.OutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.wire.OrderCodec;
 
-import java.util.Arrays;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+/**
+ * Public methods are the {@link TicketService} purchases and the variants built on them: encoded orders,
+ * pre-validated orders and seat holds. Everything else stays private.
+ */
 public class TicketServiceImpl implements TicketService {
-    /**
-     * Should only have private methods other than the one below.
-     */
-    private static final int PRICE_FOR_ADULTS = 25;
-    private static final int PRICE_FOR_KIDS = 15;
-    private static final int PRICE_FOR_INFANTS = 0;
+
+    private static final int MAX_TICKETS_PER_PURCHASE = 25;
 
     private final TicketPaymentService paymentService;
     private final SeatReservationService seatReservationService;
+    private final SeatAvailability seatAvailability;
+    private final PricingEngine pricing;
+    private final PurchaseMetrics metrics;
+    private final PurchaseJournal journal;
+    private final Executor sagaExecutor;
 
     public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatReservationService) {
+        this(paymentService, seatReservationService, PurchaseMetrics.NOOP);
+    }
+
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatReservationService,
+                             PurchaseMetrics metrics) {
+        this(paymentService, seatReservationService, PricingEngine.standard(), metrics);
+    }
+
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatReservationService,
+                             PricingEngine pricing, PurchaseMetrics metrics) {
+        this(paymentService, seatReservationService, pricing, metrics, PurchaseJournal.NOOP);
+    }
+
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatReservationService,
+                             PricingEngine pricing, PurchaseMetrics metrics, PurchaseJournal journal) {
+        this(paymentService, seatReservationService, pricing, metrics, journal, null);
+    }
+
+    /**
+     * @param sagaExecutor if not null, purchases run in saga mode: the payment and the reservation are made at
+     *                     the same time, and a failure of either is compensated by a refund or a seat release.
+     *                     The reservation call is started on this executor.
+     */
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatReservationService,
+                             PricingEngine pricing, PurchaseMetrics metrics, PurchaseJournal journal,
+                             Executor sagaExecutor) {
         this.paymentService = paymentService;
         this.seatReservationService = seatReservationService;
+        this.pricing = pricing;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.sagaExecutor = sagaExecutor;
+        this.seatAvailability = SeatAvailability.of(seatReservationService);
     }
 
     @Override
     public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
 
-        if (!accountIsValid(accountId)) {
-            throw new InvalidPurchaseException("Invalid account ID. Account ID must be greater than zero.");
+        long purchaseStartedAt = metrics.start(PurchaseStage.PURCHASE);
+        try {
+            fulfil(accountId, validatedOrder(accountId, ticketTypeRequests));
+        } finally {
+            metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt);
         }
 
-        if (!ticketRequestIsValid(ticketTypeRequests)) {
-            int totalTickets = Arrays.stream(ticketTypeRequests)
-                    .mapToInt(TicketTypeRequest::getNoOfTickets)
-                    .sum();
+    }
 
-            boolean hasAdultTicket = Arrays.stream(ticketTypeRequests)
-                    .anyMatch(request -> request.getTicketType() == TicketTypeRequest.Type.ADULT);
+    /**
+     * Purchases the order encoded by {@link OrderCodec} at the buffer's position, and advances past it. The
+     * order is read in place, so no request objects are created.
+     */
+    public void purchaseTickets(ByteBuffer encodedOrder) throws InvalidPurchaseException {
 
-            if (totalTickets == 0) {
-                throw new InvalidPurchaseException("Invalid order. Order cannot be empty.");
-            }
+        int index = encodedOrder.position();
+        if (encodedOrder.remaining() < OrderCodec.ENCODED_LENGTH) {
+            throw new BufferUnderflowException();
+        }
+        encodedOrder.position(index + OrderCodec.ENCODED_LENGTH);
+        long accountId = OrderCodec.accountId(encodedOrder, index);
 
-            if (!hasAdultTicket) {
-                throw new InvalidPurchaseException("Invalid order. At least one Adult ticket is required.");
-            }
+        long purchaseStartedAt = metrics.start(PurchaseStage.PURCHASE);
+        try {
+            fulfil(accountId, validatedOrder(accountId, encodedOrder, index));
+        } finally {
+            metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt);
+        }
 
-            if (totalTickets > 25) {
-                throw new InvalidPurchaseException("Invalid order. Maximum 25 tickets are allowed per purchase.");
-            }
+    }
 
-            // If none of these conditions are met, it's an unexpected state:
-            throw new InvalidPurchaseException("Invalid order. Please check your ticket request details.");
+    /**
+     * Purchases an {@link Order} packed into a {@code long}. Nothing is boxed or allocated on the way to the
+     * payment and seat services.
+     */
+    public void purchaseOrder(long accountId, long order) throws InvalidPurchaseException {
+
+        long purchaseStartedAt = metrics.start(PurchaseStage.PURCHASE);
+        try {
+            fulfil(accountId, validatedOrder(accountId, order));
+        } finally {
+            metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt);
         }
 
-        // Continue with payment and seat reservation logic...
-        int totalAmountToPay = calculateTotalPayment(ticketTypeRequests);
-        int totalSeatsToAllocate = calculateTotalSeats(ticketTypeRequests);
+    }
+
+    /**
+     * First half of a two-phase purchase: checks the order and holds its seats for {@code ttl} without taking
+     * payment. Returns the token to confirm the hold with {@link #purchaseTickets(long, long, TicketTypeRequest...)}.
+     */
+    public long holdSeats(long accountId, Duration ttl, TicketTypeRequest... ticketTypeRequests)
+            throws InvalidPurchaseException {
 
-        paymentService.makePayment(accountId, totalAmountToPay);
-        seatReservationService.reserveSeat(accountId, totalSeatsToAllocate);
+        int totalSeatsToHold = totalSeats(validatedOrder(accountId, ticketTypeRequests));
 
+        long reservationStartedAt = metrics.start(PurchaseStage.RESERVATION);
+        try {
+            return seatReservationService.holdSeats(accountId, totalSeatsToHold, ttl);
+        } finally {
+            metrics.stop(PurchaseStage.RESERVATION, reservationStartedAt);
+        }
     }
 
-    private boolean accountIsValid(long accountId) {
-        return accountId > 0;
+    /**
+     * Second half of a two-phase purchase: pays for the order and confirms the seats held under
+     * {@code holdToken}. The order must need as many seats as were held. If the hold runs out before the payment
+     * clears, the payment is refunded and the purchase fails with {@link InvalidPurchaseReason#HOLD_EXPIRED}.
+     */
+    public void purchaseTickets(long accountId, long holdToken, TicketTypeRequest... ticketTypeRequests)
+            throws InvalidPurchaseException {
+
+        long purchaseStartedAt = metrics.start(PurchaseStage.PURCHASE);
+        try {
+            fulfilHold(accountId, holdToken, validatedHeldOrder(accountId, ticketTypeRequests));
+        } finally {
+            metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt);
+        }
 
     }
 
-    private boolean ticketRequestIsValid(TicketTypeRequest... ticketTypeRequests) {
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTicketsAsync(long accountId, TicketTypeRequest... ticketTypeRequests) {
 
-        if (ticketTypeRequests == null || ticketTypeRequests.length == 0) {
-            return false; // Empty or null array is invalid
+        long purchaseStartedAt = metrics.start(PurchaseStage.PURCHASE);
+        int totalAmountToPay;
+        int totalSeatsToAllocate;
+        long purchaseId;
+        CompletableFuture<Void> intentCommit;
+        try {
+            long order = validatedOrder(accountId, ticketTypeRequests);
+            totalAmountToPay = totalPayment(order);
+            totalSeatsToAllocate = totalSeats(order);
+            purchaseId = journal.intent(accountId, totalAmountToPay, totalSeatsToAllocate);
+            intentCommit = journal.commit();
+        } catch (RuntimeException e) {
+            // Rejected, or not journalled: either way nothing was paid for and the future is the only report.
+            metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt);
+            return CompletableFuture.failedFuture(e);
         }
 
-        int totalTickets = 0;
-        int adultTickets = 0;
+        return intentCommit
+                .thenCompose(intentCommitted -> sagaExecutor == null
+                        ? payThenReserve(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate)
+                        : payAndReserve(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate))
+                .thenApply(fulfilled -> new PurchaseResult(accountId, totalAmountToPay, totalSeatsToAllocate))
+                .whenComplete((result, failure) -> metrics.stop(PurchaseStage.PURCHASE, purchaseStartedAt));
+    }
 
-        for (TicketTypeRequest request : ticketTypeRequests) {
-            totalTickets += request.getNoOfTickets();
-            if (request.getTicketType() == TicketTypeRequest.Type.ADULT) {
-                adultTickets += request.getNoOfTickets();
+    private long validatedOrder(long accountId, TicketTypeRequest... ticketTypeRequests) {
+
+        long validationStartedAt = metrics.start(PurchaseStage.VALIDATION);
+        try {
+            // One pass over the requests; everything else is derived from the tally.
+            long order = Order.of(ticketTypeRequests);
+            return checkedOrder(accountId, order, rejectionReason(order, ticketTypeRequests));
+        } finally {
+            metrics.stop(PurchaseStage.VALIDATION, validationStartedAt);
+        }
+    }
+
+    private long validatedOrder(long accountId, long order) {
+
+        long validationStartedAt = metrics.start(PurchaseStage.VALIDATION);
+        try {
+            return checkedOrder(accountId, order, rejectionReason(order));
+        } finally {
+            metrics.stop(PurchaseStage.VALIDATION, validationStartedAt);
+        }
+    }
+
+    private long validatedHeldOrder(long accountId, TicketTypeRequest... ticketTypeRequests) {
+
+        long validationStartedAt = metrics.start(PurchaseStage.VALIDATION);
+        try {
+            // The seats are already held, so there is no point asking whether they would fit.
+            long order = Order.of(ticketTypeRequests);
+            return checkedRules(accountId, order, rejectionReason(order, ticketTypeRequests));
+        } finally {
+            metrics.stop(PurchaseStage.VALIDATION, validationStartedAt);
+        }
+    }
+
+    private long validatedOrder(long accountId, ByteBuffer encodedOrder, int index) {
+
+        long validationStartedAt = metrics.start(PurchaseStage.VALIDATION);
+        try {
+            long order = Order.of(OrderCodec.adults(encodedOrder, index),
+                    OrderCodec.children(encodedOrder, index), OrderCodec.infants(encodedOrder, index));
+            return checkedOrder(accountId, order, rejectionReason(order));
+        } finally {
+            metrics.stop(PurchaseStage.VALIDATION, validationStartedAt);
+        }
+    }
+
+    private long checkedOrder(long accountId, long order, InvalidPurchaseReason rejection) {
+
+        checkedRules(accountId, order, rejection);
+
+        // Turn orders that can never fit, or are sold out, away before the payment gateway is involved.
+        int seats = totalSeats(order);
+        if (seats > seatAvailability.maxSeatsPerOrder()) {
+            throw rejected(InvalidPurchaseReason.INVALID_REQUEST);
+        }
+        if (!seatAvailability.canAllocate(seats)) {
+            throw rejected(InvalidPurchaseReason.SOLD_OUT);
+        }
+        return order;
+    }
+
+    private long checkedRules(long accountId, long order, InvalidPurchaseReason rejection) {
+
+        if (!accountIsValid(accountId)) {
+            throw rejected(InvalidPurchaseReason.INVALID_ACCOUNT);
+        }
+
+        if (rejection != null) {
+            throw rejected(rejection);
+        }
+        return order;
+    }
+
+    private void fulfil(long accountId, long order) {
+
+        int totalAmountToPay = totalPayment(order);
+        int totalSeatsToAllocate = totalSeats(order);
+
+        // Write-ahead: the intent is on disk before anyone is charged, and the payment before seats are taken.
+        long purchaseId = journal.intent(accountId, totalAmountToPay, totalSeatsToAllocate);
+        Futures.await(journal.commit());
+
+        if (sagaExecutor != null) {
+            Futures.await(payAndReserve(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate));
+            return;
+        }
+
+        pay(purchaseId, accountId, totalAmountToPay);
+
+        journal.reservationStarted(purchaseId);
+        long reservationStartedAt = metrics.start(PurchaseStage.RESERVATION);
+        try {
+            seatReservationService.reserveSeat(accountId, totalSeatsToAllocate);
+        } catch (RuntimeException e) {
+            journal.reservationFailed(purchaseId);
+            refund(purchaseId, accountId, totalAmountToPay, e);
+            throw e;
+        } finally {
+            metrics.stop(PurchaseStage.RESERVATION, reservationStartedAt);
+        }
+        journal.reserved(purchaseId);
+    }
+
+    /**
+     * Gives the money back for a purchase that got no seats. If the refund fails too, it is noted on the original
+     * failure and the journal is left as it was, for recovery to settle.
+     */
+    private void refund(long purchaseId, long accountId, int totalAmountToRefund, RuntimeException failure) {
+        try {
+            paymentService.refundPayment(accountId, totalAmountToRefund);
+        } catch (RuntimeException refundFailure) {
+            failure.addSuppressed(refundFailure);
+            return;
+        }
+        journal.compensated(purchaseId);
+    }
+
+    private void fulfilHold(long accountId, long holdToken, long order) {
+
+        int totalAmountToPay = totalPayment(order);
+        int totalSeatsToAllocate = totalSeats(order);
+
+        long purchaseId = journal.intent(accountId, totalAmountToPay, totalSeatsToAllocate);
+        Futures.await(journal.commit());
+
+        pay(purchaseId, accountId, totalAmountToPay);
+
+        journal.reservationStarted(purchaseId);
+        long reservationStartedAt = metrics.start(PurchaseStage.RESERVATION);
+        try {
+            seatReservationService.confirmHold(accountId, holdToken, totalSeatsToAllocate);
+        } catch (SeatHoldExpiredException e) {
+            journal.reservationFailed(purchaseId);
+            try {
+                paymentService.refundPayment(accountId, totalAmountToPay);
+            } catch (RuntimeException refundFailure) {
+                // Still journalled as paid, so recovery seats the customer instead.
+                refundFailure.addSuppressed(e);
+                throw refundFailure;
             }
+            journal.compensated(purchaseId);
+            throw rejected(InvalidPurchaseReason.HOLD_EXPIRED);
+        } catch (RuntimeException e) {
+            journal.reservationFailed(purchaseId);
+            refund(purchaseId, accountId, totalAmountToPay, e);
+            throw e;
+        } finally {
+            metrics.stop(PurchaseStage.RESERVATION, reservationStartedAt);
         }
-            return totalTickets > 0 && adultTickets > 0 && totalTickets <= 25;
+        journal.reserved(purchaseId);
     }
 
-    private int calculateTotalPayment(TicketTypeRequest... ticketTypeRequests) {
-        int totalCost = 0;
-        for (TicketTypeRequest request : ticketTypeRequests) {
-            if (request.getTicketType() == TicketTypeRequest.Type.ADULT) {
-                totalCost += request.getNoOfTickets() * PRICE_FOR_ADULTS;
-            } else if (request.getTicketType() == TicketTypeRequest.Type.CHILD) {
-                totalCost += request.getNoOfTickets() * PRICE_FOR_KIDS;
+    private void pay(long purchaseId, long accountId, int totalAmountToPay) {
+
+        long paymentStartedAt = metrics.start(PurchaseStage.PAYMENT);
+        try {
+            paymentService.makePayment(accountId, totalAmountToPay);
+        } catch (RuntimeException e) {
+            if (!outcomeUnknown(e)) {
+                journal.paymentFailed(purchaseId); // Otherwise left open, for recovery to report as unconfirmed
             }
+            throw e;
+        } finally {
+            metrics.stop(PurchaseStage.PAYMENT, paymentStartedAt);
+        }
+        journal.paid(purchaseId);
+        Futures.await(journal.commit());
+    }
+
+    private CompletableFuture<Void> payThenReserve(long purchaseId, long accountId, int totalAmountToPay,
+                                                   int totalSeatsToAllocate) {
+
+        // Seats are only reserved once the payment has gone through, as in the blocking flow.
+        long paymentStartedAt = metrics.start(PurchaseStage.PAYMENT);
+        return paymentService.makePaymentAsync(accountId, totalAmountToPay)
+                .whenComplete((paid, failure) -> metrics.stop(PurchaseStage.PAYMENT, paymentStartedAt))
+                .handle((paid, failure) -> failure == null ? null : Futures.unwrap(failure))
+                .thenCompose(paymentFailure -> {
+                    if (paymentFailure != null) {
+                        return paymentFailed(purchaseId, paymentFailure);
+                    }
+                    journal.paid(purchaseId);
+                    return journal.commit();
+                })
+                .thenCompose(paidCommitted -> {
+                    journal.reservationStarted(purchaseId);
+                    long reservationStartedAt = metrics.start(PurchaseStage.RESERVATION);
+                    return seatReservationService.reserveSeatAsync(accountId, totalSeatsToAllocate)
+                            .whenComplete((reserved, failure) ->
+                                    metrics.stop(PurchaseStage.RESERVATION, reservationStartedAt))
+                            .handle((reserved, failure) -> failure == null ? null : Futures.unwrap(failure));
+                })
+                .thenCompose(reservationFailure -> {
+                    if (reservationFailure == null) {
+                        journal.reserved(purchaseId);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    // As in the blocking flow, the purchase stays paid until the refund is confirmed.
+                    journal.reservationFailed(purchaseId);
+                    return compensate(paymentService.refundPaymentAsync(accountId, totalAmountToPay),
+                            reservationFailure, () -> journal.compensated(purchaseId));
+                });
+    }
+
+    /**
+     * Saga mode: the reservation is started on the saga executor and the payment on this thread, so the
+     * purchase takes as long as the slower of the two. Whichever succeeded is undone if the other failed. The
+     * reservation is journalled as started before it is handed over, so a crash while it is in flight leaves the
+     * seats reported as unconfirmed.
+     */
+    private CompletableFuture<Void> payAndReserve(long purchaseId, long accountId, int totalAmountToPay,
+                                                  int totalSeatsToAllocate) {
+
+        journal.reservationStarted(purchaseId);
+        long reservationStartedAt = metrics.start(PurchaseStage.RESERVATION);
+        CompletableFuture<Void> reservation = CompletableFuture
+                .supplyAsync(() -> seatReservationService.reserveSeatAsync(accountId, totalSeatsToAllocate),
+                        sagaExecutor)
+                .thenCompose(Function.identity())
+                .whenComplete((reserved, failure) -> metrics.stop(PurchaseStage.RESERVATION, reservationStartedAt));
+
+        long paymentStartedAt = metrics.start(PurchaseStage.PAYMENT);
+        CompletableFuture<Void> payment = paymentService.makePaymentAsync(accountId, totalAmountToPay)
+                .whenComplete((paid, failure) -> metrics.stop(PurchaseStage.PAYMENT, paymentStartedAt));
+
+        return CompletableFuture.allOf(payment, reservation)
+                .handle((settled, failure) -> null)
+                .thenCompose(settled -> {
+                    Throwable paymentFailure = failureOf(payment);
+                    Throwable reservationFailure = failureOf(reservation);
+                    if (paymentFailure == null && reservationFailure == null) {
+                        journal.paid(purchaseId);
+                        journal.reserved(purchaseId);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (paymentFailure != null && reservationFailure != null) {
+                        journal.reservationFailed(purchaseId);
+                        paymentFailure.addSuppressed(reservationFailure);
+                        return paymentFailed(purchaseId, paymentFailure);
+                    }
+                    if (paymentFailure != null) {
+                        return seatReservationService.releaseSeatAsync(accountId, totalSeatsToAllocate)
+                                .handle((released, failure) -> failure == null ? null : Futures.unwrap(failure))
+                                .thenCompose(releaseFailure -> {
+                                    if (releaseFailure != null) {
+                                        return seatsNotReleased(paymentFailure, releaseFailure);
+                                    }
+                                    journal.reservationFailed(purchaseId); // Given back, so nothing is held
+                                    return paymentFailed(purchaseId, paymentFailure);
+                                });
+                    }
+                    // Until the refund is confirmed the purchase stays paid, so recovery would still seat it.
+                    journal.paid(purchaseId);
+                    journal.reservationFailed(purchaseId);
+                    return compensate(paymentService.refundPaymentAsync(accountId, totalAmountToPay),
+                            reservationFailure, () -> journal.compensated(purchaseId));
+                });
+    }
+
+    /**
+     * Settles a purchase whose payment failed, failing with that failure. A payment that timed out may have been
+     * taken all the same, and the gateway cannot say which payment a refund is for, so nothing is refunded: the
+     * purchase stays open in the journal, for recovery to report as unconfirmed.
+     */
+    private CompletableFuture<Void> paymentFailed(long purchaseId, Throwable failure) {
+        if (!outcomeUnknown(failure)) {
+            journal.paymentFailed(purchaseId);
         }
-        return totalCost;
+        return CompletableFuture.failedFuture(failure);
+    }
+
+    /**
+     * Saga mode, when the payment failed and the seats taken for it could not be given back. The purchase is left
+     * open in the journal with its reservation started, so recovery reports the seats as unconfirmed.
+     */
+    private CompletableFuture<Void> seatsNotReleased(Throwable paymentFailure, Throwable releaseFailure) {
+        paymentFailure.addSuppressed(releaseFailure);
+        return CompletableFuture.failedFuture(paymentFailure);
+    }
+
+    /**
+     * Whether a failed call may still have gone through: the guard or a blocked caller stopped waiting, not the
+     * dependency refusing.
+     */
+    private static boolean outcomeUnknown(Throwable failure) {
+        if (failure instanceof OutcomeUnknownException) {
+            return true;
+        }
+        return failure instanceof DependencyUnavailableException
+                && ((DependencyUnavailableException) failure).getReason()
+                == DependencyUnavailableException.Reason.TIMED_OUT;
+    }
 
+    /**
+     * Fails with the original failure once the compensating action has run, noting if that failed as well.
+     */
+    private static CompletableFuture<Void> compensate(CompletableFuture<Void> compensation, Throwable failure,
+                                                      Runnable onCompensated) {
+        return compensation.<Void>handle((undone, compensationFailure) -> {
+            if (compensationFailure == null) {
+                onCompensated.run();
+            } else {
+                failure.addSuppressed(Futures.unwrap(compensationFailure));
+            }
+            throw failure instanceof CompletionException
+                    ? (CompletionException) failure
+                    : new CompletionException(failure);
+        });
     }
 
-    private int calculateTotalSeats(TicketTypeRequest... ticketTypeRequests) {
-        int totalSeats = 0;
+    private static Throwable failureOf(CompletableFuture<Void> stage) {
+        return stage.handle((done, failure) -> failure == null ? null : Futures.unwrap(failure)).join();
+    }
+
+    private InvalidPurchaseException rejected(InvalidPurchaseReason reason) {
+        metrics.rejected(reason);
+        return new InvalidPurchaseException(reason);
+    }
+
+    private boolean accountIsValid(long accountId) {
+        return accountId > 0;
+
+    }
+
+    /**
+     * The tally cannot tell an adult request for no tickets from no adult request at all. The original service
+     * only said an adult was required in the second case, so look again at the requests for that.
+     */
+    private static InvalidPurchaseReason rejectionReason(long order, TicketTypeRequest... ticketTypeRequests) {
+        InvalidPurchaseReason rejection = rejectionReason(order);
+        if (rejection != InvalidPurchaseReason.NO_ADULT) {
+            return rejection;
+        }
         for (TicketTypeRequest request : ticketTypeRequests) {
-            if (request.getTicketType() == TicketTypeRequest.Type.ADULT ||
-                request.getTicketType() == TicketTypeRequest.Type.CHILD) {
-                totalSeats += request.getNoOfTickets();
+            if (request.getTicketType() == TicketTypeRequest.Type.ADULT) {
+                return Order.totalTickets(order) > MAX_TICKETS_PER_PURCHASE
+                        ? InvalidPurchaseReason.TOO_MANY_TICKETS
+                        : InvalidPurchaseReason.INVALID_REQUEST;
             }
         }
-        return totalSeats;
+        return rejection;
+    }
+
+    private static InvalidPurchaseReason rejectionReason(long order) {
+        if (order == Order.MALFORMED) {
+            return InvalidPurchaseReason.INVALID_REQUEST;
+        }
+        int totalTickets = Order.totalTickets(order);
+        if (totalTickets == 0) {
+            return InvalidPurchaseReason.EMPTY_ORDER;
+        }
+        if (Order.adults(order) == 0) {
+            return InvalidPurchaseReason.NO_ADULT;
+        }
+        if (totalTickets > MAX_TICKETS_PER_PURCHASE) {
+            return InvalidPurchaseReason.TOO_MANY_TICKETS;
+        }
+        return null;
+    }
+
+    private int totalPayment(long order) {
+        return pricing.currentPrices().total(Order.adults(order), Order.children(order), Order.infants(order));
+    }
 
+    private static int totalSeats(long order) {
+        return Order.adults(order) + Order.children(order); // Infants sit on an adult's lap
     }
 
 }
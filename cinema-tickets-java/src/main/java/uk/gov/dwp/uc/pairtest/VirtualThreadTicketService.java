@@ -0,0 +1,127 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front end that runs every purchase on its own virtual thread, with at most {@code maxConcurrentPurchases}
+ * in flight. When the limit is reached callers wait up to {@code admissionTimeout} for a slot and are then
+ * turned away with {@link RejectedExecutionException}.
+ * <p>
+ * Virtual threads need Java 21 (build with the {@code java21} profile); older runtimes fall back to a
+ * thread per purchase from a cached platform pool.
+ */
+public class VirtualThreadTicketService implements TicketService, AutoCloseable {
+
+    private final TicketService delegate;
+    private final ExecutorService executor;
+    private final int maxConcurrentPurchases;
+    private final Semaphore permits;
+    private final long admissionTimeoutNanos;
+
+    public VirtualThreadTicketService(TicketService delegate, int maxConcurrentPurchases, Duration admissionTimeout) {
+        this(delegate, newThreadPerTaskExecutor(), maxConcurrentPurchases, admissionTimeout);
+    }
+
+    VirtualThreadTicketService(TicketService delegate, ExecutorService executor,
+                               int maxConcurrentPurchases, Duration admissionTimeout) {
+        if (maxConcurrentPurchases <= 0) {
+            throw new IllegalArgumentException("maxConcurrentPurchases must be greater than zero.");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxConcurrentPurchases = maxConcurrentPurchases;
+        this.permits = new Semaphore(maxConcurrentPurchases);
+        this.admissionTimeoutNanos = admissionTimeout.toNanos();
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        Futures.await(purchaseTicketsAsync(accountId, ticketTypeRequests));
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTicketsAsync(long accountId, TicketTypeRequest... ticketTypeRequests) {
+        try {
+            admit();
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(result, accountId, ticketTypeRequests));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Purchases currently running or waiting on a downstream call.
+     */
+    public int inFlight() {
+        return maxConcurrentPurchases - permits.availablePermits();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void admit() {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(admissionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a purchase slot.", e);
+        }
+        if (!admitted) {
+            throw new RejectedExecutionException("Too many purchases in flight. Please try again shortly.");
+        }
+    }
+
+    private void run(CompletableFuture<PurchaseResult> result, long accountId, TicketTypeRequest... ticketTypeRequests) {
+        CompletableFuture<PurchaseResult> purchase;
+        try {
+            // Blocking third-party calls made here park only this virtual thread.
+            purchase = delegate.purchaseTicketsAsync(accountId, ticketTypeRequests);
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            result.completeExceptionally(e);
+            return;
+        }
+        purchase.whenComplete((value, failure) -> {
+            permits.release();
+            if (failure != null) {
+                result.completeExceptionally(Futures.unwrap(failure));
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            // Looked up reflectively so the class still compiles and runs on the Java 11 baseline.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return Executors.newCachedThreadPool();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor.", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-account token bucket: each account may purchase {@code purchasesPerSecond} times a second on average,
+ * with bursts of up to {@code burst} purchases.
+ * <p>
+ * Each bucket is one long, the time its next token becomes due (the generic cell rate algorithm), so a purchase
+ * is admitted by a single compare-and-set and nothing is locked. Buckets live in a fixed-size open-addressing
+ * table of primitive longs keyed by account id, so account ids are never boxed. A bucket that has refilled
+ * holds the same state as a new one, so its slot is handed to the next account that needs it. If every slot an
+ * account could use is busy, the purchase is admitted and counted by {@link #untrackedAdmissions()}.
+ */
+public class AccountRateLimiter {
+
+    private static final long EMPTY = 0L; // Account ids are positive
+    private static final int MAX_PROBES = 16;
+
+    private final AtomicLongArray accounts;
+    private final AtomicLongArray nextTokenDue;
+    private final int mask;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final long origin;
+    private final LongAdder untracked = new LongAdder();
+
+    /**
+     * @param maxAccounts how many accounts can be limited at once; rounded up to a power of two
+     */
+    public AccountRateLimiter(double purchasesPerSecond, int burst, int maxAccounts) {
+        this(purchasesPerSecond, burst, maxAccounts, System::nanoTime);
+    }
+
+    AccountRateLimiter(double purchasesPerSecond, int burst, int maxAccounts, LongSupplier clock) {
+        if (purchasesPerSecond <= 0 || burst <= 0 || maxAccounts <= 0 || maxAccounts > 1 << 30) {
+            throw new IllegalArgumentException("Rate, burst and account capacity must be greater than zero.");
+        }
+        int capacity = Integer.highestOneBit(maxAccounts - 1) << 1;
+        capacity = Math.max(capacity, MAX_PROBES);
+        this.accounts = new AtomicLongArray(capacity);
+        this.nextTokenDue = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / purchasesPerSecond));
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.clock = clock;
+        // Times are kept relative to this, so that zero, the state of an unused slot, is always in the past.
+        this.origin = clock.getAsLong() - 1;
+    }
+
+    /**
+     * Takes a token for the account. Returns zero if the purchase may go ahead, otherwise how many nanoseconds
+     * until the account's next token is due.
+     */
+    public long tryAcquire(long accountId) {
+        if (accountId <= EMPTY) {
+            return 0L; // Left for validation to reject
+        }
+        long now = clock.getAsLong() - origin;
+        int slot = slotFor(accountId, now);
+        if (slot < 0) {
+            untracked.increment();
+            return 0L;
+        }
+        while (true) {
+            long due = nextTokenDue.get(slot);
+            long wait = due - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (nextTokenDue.compareAndSet(slot, due, Math.max(due, now) + intervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Purchases admitted without a limit because the account table had no slot free for them.
+     */
+    public long untrackedAdmissions() {
+        return untracked.sum();
+    }
+
+    private int slotFor(long accountId, long now) {
+        int home = (int) mix(accountId) & mask;
+        // Look for the account's own bucket first, so it cannot start afresh in an earlier, refilled slot.
+        for (int probe = 0, slot = home; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+            long owner = accounts.get(slot);
+            if (owner == accountId) {
+                return slot;
+            }
+            if (owner == EMPTY) {
+                break; // Slots are never emptied, so the account is not further along
+            }
+        }
+        for (int probe = 0, slot = home; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+            long owner = accounts.get(slot);
+            if (owner == accountId) {
+                return slot;
+            }
+            // A free slot, or one whose bucket has refilled: either looks like a full bucket to a new account.
+            boolean reusable = owner == EMPTY || nextTokenDue.get(slot) <= now;
+            if (reusable && (accounts.compareAndSet(slot, owner, accountId) || accounts.get(slot) == accountId)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+}
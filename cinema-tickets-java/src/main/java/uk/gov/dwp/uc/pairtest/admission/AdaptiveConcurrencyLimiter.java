@@ -0,0 +1,123 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Global cap on purchases in flight that follows the downstream services (AIMD, with a Vegas-style latency
+ * signal). The shortest recent purchase latency is taken as the no-queueing baseline:
+ * <ul>
+ *     <li>a purchase slower than {@code tolerance} times the baseline, or one that failed downstream, cuts the
+ *     limit by {@code backoffRatio}, at most once per baseline latency</li>
+ *     <li>otherwise, once as many purchases have succeeded as the limit allows, the limit grows by one</li>
+ * </ul>
+ * The baseline is re-measured every {@value #BASELINE_SAMPLES} purchases so it can follow a slower downstream.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final int BASELINE_SAMPLES = 1024;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final LongSupplier clock;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger successesSinceGrowth = new AtomicInteger();
+    private final AtomicLong baselineNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong lastBackoff;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 0.9, 2.0, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                               LongSupplier clock) {
+        if (minLimit <= 0 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.clock = clock;
+        this.limit = new AtomicInteger(initialLimit);
+        this.lastBackoff = new AtomicLong(clock.getAsLong() - (1L << 62)); // Long enough ago
+    }
+
+    /**
+     * Takes a slot if fewer purchases than the limit are in flight. Every successful call must be followed by
+     * one of {@link #onSuccess}, {@link #onDropped} or {@link #onIgnored}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The purchase completed downstream in {@code latencyNanos}.
+     */
+    public void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        long baseline = updateBaseline(latencyNanos);
+        if (latencyNanos > baseline * tolerance) {
+            backOff(baseline);
+        } else if (successesSinceGrowth.incrementAndGet() >= limit.get()) {
+            successesSinceGrowth.set(0);
+            limit.getAndUpdate(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * The purchase failed or timed out downstream.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        backOff(baselineNanos.get());
+    }
+
+    /**
+     * The purchase ended without telling us anything about the downstream, e.g. it broke a business rule.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private long updateBaseline(long latencyNanos) {
+        if (samples.incrementAndGet() % BASELINE_SAMPLES == 0) {
+            baselineNanos.set(latencyNanos);
+            return latencyNanos;
+        }
+        return baselineNanos.accumulateAndGet(latencyNanos, Math::min);
+    }
+
+    private void backOff(long baseline) {
+        long now = clock.getAsLong();
+        long last = lastBackoff.get();
+        long quietPeriod = baseline == Long.MAX_VALUE ? 0L : baseline;
+        // One cut per round trip: the purchases already in flight saw the same congestion.
+        if (now - last >= quietPeriod && lastBackoff.compareAndSet(last, now)) {
+            successesSinceGrowth.set(0);
+            limit.getAndUpdate(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+/**
+ * An order held in a single primitive {@code long}, so it can be built, passed and validated without allocating.
+ * <p>
+ * Bits 0-15 hold the adult count, 16-31 the child count and 32-47 the infant count. Counts above 65535 saturate,
+ * which is still far above any valid order. {@link #MALFORMED} stands for a request that cannot be an order at
+ * all, such as a negative count.
+ */
+public final class Order {
+
+    public static final long EMPTY = 0L;
+    public static final long MALFORMED = Long.MIN_VALUE;
+
+    private static final int ADULT_SHIFT = 0;
+    private static final int CHILD_SHIFT = 16;
+    private static final int INFANT_SHIFT = 32;
+    private static final long COUNT_MASK = 0xFFFFL;
+
+    private Order() {
+    }
+
+    public static long of(long adults, long children, long infants) {
+        if (adults < 0 || children < 0 || infants < 0) {
+            return MALFORMED;
+        }
+        return Math.min(adults, COUNT_MASK) << ADULT_SHIFT
+                | Math.min(children, COUNT_MASK) << CHILD_SHIFT
+                | Math.min(infants, COUNT_MASK) << INFANT_SHIFT;
+    }
+
+    /**
+     * Folds requests into one order; several requests of the same type add up. A {@code null} array is empty.
+     */
+    public static long of(TicketTypeRequest... ticketTypeRequests) {
+        if (ticketTypeRequests == null) {
+            return EMPTY;
+        }
+
+        long adults = 0;
+        long children = 0;
+        long infants = 0;
+
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            if (request == null || request.getTicketType() == null || request.getNoOfTickets() < 0) {
+                return MALFORMED;
+            }
+            switch (request.getTicketType()) {
+                case ADULT:
+                    adults += request.getNoOfTickets();
+                    break;
+                case CHILD:
+                    children += request.getNoOfTickets();
+                    break;
+                default:
+                    infants += request.getNoOfTickets();
+                    break;
+            }
+        }
+        return of(adults, children, infants);
+    }
+
+    public static int adults(long order) {
+        return (int) (order >>> ADULT_SHIFT & COUNT_MASK);
+    }
+
+    public static int children(long order) {
+        return (int) (order >>> CHILD_SHIFT & COUNT_MASK);
+    }
+
+    public static int infants(long order) {
+        return (int) (order >>> INFANT_SHIFT & COUNT_MASK);
+    }
+
+    public static int totalTickets(long order) {
+        return adults(order) + children(order) + infants(order);
+    }
+
+    /**
+     * Back to requests, using the shared {@link TicketTypeRequest} instances where possible.
+     */
+    public static TicketTypeRequest[] toRequests(long order) {
+        if (order == MALFORMED) {
+            throw new IllegalArgumentException("A malformed order has no requests.");
+        }
+        return new TicketTypeRequest[] {
+                TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, adults(order)),
+                TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, children(order)),
+                TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, infants(order))
+        };
+    }
+
+    public static String toString(long order) {
+        if (order == MALFORMED) {
+            return "Order{MALFORMED}";
+        }
+        return "Order{adults=" + adults(order) + ", children=" + children(order) + ", infants=" + infants(order) + '}';
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import java.util.Objects;
+
+/**
+ * Immutable Object: what a successful purchase charged and reserved.
+ */
+
+public final class PurchaseResult {
+
+    private final long accountId;
+    private final int totalAmountPaid;
+    private final int totalSeatsReserved;
+
+    public PurchaseResult(long accountId, int totalAmountPaid, int totalSeatsReserved) {
+        this.accountId = accountId;
+        this.totalAmountPaid = totalAmountPaid;
+        this.totalSeatsReserved = totalSeatsReserved;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalAmountPaid() {
+        return totalAmountPaid;
+    }
+
+    public int getTotalSeatsReserved() {
+        return totalSeatsReserved;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PurchaseResult)) {
+            return false;
+        }
+        PurchaseResult that = (PurchaseResult) o;
+        return accountId == that.accountId
+                && totalAmountPaid == that.totalAmountPaid
+                && totalSeatsReserved == that.totalSeatsReserved;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountId, totalAmountPaid, totalSeatsReserved);
+    }
+
+    @Override
+    public String toString() {
+        return "PurchaseResult{accountId=" + accountId
+                + ", totalAmountPaid=" + totalAmountPaid
+                + ", totalSeatsReserved=" + totalSeatsReserved + '}';
+    }
+}
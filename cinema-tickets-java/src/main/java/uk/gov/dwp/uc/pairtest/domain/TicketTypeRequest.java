@@ -2,18 +2,44 @@ package uk.gov.dwp.uc.pairtest.domain;
 
 /**
  * Immutable Object
+ * <p>
+ * {@link #of(Type, int)} hands out shared instances for the counts a valid order can hold, so building an
+ * order need not allocate one request per ticket type.
  */
 
-public class TicketTypeRequest {
+public final class TicketTypeRequest {
 
-    private int noOfTickets;
-    private Type type;
+    private static final int MAX_CACHED_TICKETS = 25;
+    private static final Type[] TYPES = Type.values();
+    private static final TicketTypeRequest[][] CANONICAL = new TicketTypeRequest[TYPES.length][];
+
+    static {
+        for (Type type : TYPES) {
+            CANONICAL[type.ordinal()] = new TicketTypeRequest[MAX_CACHED_TICKETS + 1];
+            for (int noOfTickets = 0; noOfTickets <= MAX_CACHED_TICKETS; noOfTickets++) {
+                CANONICAL[type.ordinal()][noOfTickets] = new TicketTypeRequest(type, noOfTickets);
+            }
+        }
+    }
+
+    private final int noOfTickets;
+    private final Type type;
 
     public TicketTypeRequest(Type type, int noOfTickets) {
         this.type = type;
         this.noOfTickets = noOfTickets;
     }
 
+    /**
+     * Same as the constructor, but returns a shared instance for 0 to 25 tickets of a type.
+     */
+    public static TicketTypeRequest of(Type type, int noOfTickets) {
+        if (type != null && noOfTickets >= 0 && noOfTickets <= MAX_CACHED_TICKETS) {
+            return CANONICAL[type.ordinal()][noOfTickets];
+        }
+        return new TicketTypeRequest(type, noOfTickets);
+    }
+
     public int getNoOfTickets() {
         return noOfTickets;
     }
@@ -22,6 +48,28 @@ public class TicketTypeRequest {
         return type;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TicketTypeRequest)) {
+            return false;
+        }
+        TicketTypeRequest that = (TicketTypeRequest) other;
+        return noOfTickets == that.noOfTickets && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (type == null ? 0 : type.hashCode()) + noOfTickets;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketTypeRequest{type=" + type + ", noOfTickets=" + noOfTickets + '}';
+    }
+
     public enum Type {
         ADULT, CHILD , INFANT
     }
@@ -2,7 +2,22 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class InvalidPurchaseException extends RuntimeException {
 
+    private final InvalidPurchaseReason reason;
+
     public InvalidPurchaseException(String message) {
         super(message); // Passes the message to the RuntimeException class
+        this.reason = InvalidPurchaseReason.INVALID_REQUEST;
+    }
+
+    /**
+     * Business-rule rejection: the reason says everything, so no stack trace is captured.
+     */
+    public InvalidPurchaseException(InvalidPurchaseReason reason) {
+        super(reason.getMessage(), null, false, false);
+        this.reason = reason;
+    }
+
+    public InvalidPurchaseReason getReason() {
+        return reason;
     }
 }
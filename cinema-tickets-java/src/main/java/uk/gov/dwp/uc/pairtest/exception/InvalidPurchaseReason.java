@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Preallocated reason codes for rejected purchases, so the rejection path never builds a message.
+ */
+public enum InvalidPurchaseReason {
+
+    INVALID_ACCOUNT("Invalid account ID. Account ID must be greater than zero."),
+    EMPTY_ORDER("Invalid order. Order cannot be empty."),
+    NO_ADULT("Invalid order. At least one Adult ticket is required."),
+    TOO_MANY_TICKETS("Invalid order. Maximum 25 tickets are allowed per purchase."),
+    INVALID_REQUEST("Invalid order. Please check your ticket request details."),
+    SOLD_OUT("Sorry, there are not enough seats left together for this order."),
+    RATE_LIMITED("Too many purchases from this account. Please try again shortly."),
+    OVERLOADED("We are very busy right now. Please try again shortly."),
+    HOLD_EXPIRED("Your seats are no longer held. Please choose your seats again.");
+
+    private final String message;
+
+    InvalidPurchaseReason(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,22 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * The purchase was turned away by admission control before any rule was checked or any downstream call made.
+ * Unlike other rejections it is temporary: the same order may go through if retried later.
+ */
+public class PurchaseThrottledException extends InvalidPurchaseException {
+
+    private final long retryAfterNanos;
+
+    public PurchaseThrottledException(InvalidPurchaseReason reason, long retryAfterNanos) {
+        super(reason);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * How long the caller should wait before retrying, or zero if unknown.
+     */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+}
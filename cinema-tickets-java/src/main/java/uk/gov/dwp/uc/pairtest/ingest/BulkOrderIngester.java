@@ -0,0 +1,266 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+import uk.gov.dwp.uc.pairtest.util.OutcomeUnknownException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Batch entry point for school bookings, corporate block bookings and the box-office end-of-day replay.
+ * <p>
+ * The input is a text file with one order per line, {@code accountId,adults,children,infants}; blank lines and
+ * lines starting with {@code #} are skipped. The file is memory-mapped and split on line boundaries into
+ * chunks that are parsed and purchased in parallel through {@link TicketService#purchaseTicketsAsync}, so
+ * every order goes through the same rules as a single purchase. Each worker keeps at most a fixed number of
+ * purchases in flight.
+ * <p>
+ * The result file has one line per order, in input order:
+ * {@code accountId,PURCHASED,amount,seats}, {@code accountId,REJECTED,reason},
+ * {@code accountId,FAILED,message}, {@code accountId,UNKNOWN,message} or {@code ,MALFORMED,byteOffset}. An
+ * UNKNOWN order timed out while it may still have gone through, so it may have been charged and is left to be
+ * reconciled.
+ */
+public class BulkOrderIngester {
+
+    public static final String RESULT_HEADER = "accountId,status,detail";
+
+    // Keep each mapping well inside the 2GB limit of a MappedByteBuffer.
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final TicketService ticketService;
+    private final int parallelism;
+    private final int maxInFlightPerWorker;
+
+    public BulkOrderIngester(TicketService ticketService, int parallelism, int maxInFlight) {
+        if (parallelism <= 0 || maxInFlight < parallelism) {
+            throw new IllegalArgumentException("Need at least one worker and one in-flight purchase per worker.");
+        }
+        this.ticketService = ticketService;
+        this.parallelism = parallelism;
+        this.maxInFlightPerWorker = maxInFlight / parallelism;
+    }
+
+    public IngestionSummary ingest(Path orders, Path results) throws IOException {
+        Path directory = results.toAbsolutePath().getParent();
+        try (FileChannel input = FileChannel.open(orders, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(input);
+            int chunks = boundaries.length - 1;
+
+            List<Path> parts = new ArrayList<>(chunks);
+            List<Future<IngestionSummary>> workers = new ArrayList<>(chunks);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks));
+            try {
+                for (int i = 0; i < chunks; i++) {
+                    Path part = Files.createTempFile(directory, "orders-part-" + i + "-", ".csv");
+                    parts.add(part);
+                    MappedByteBuffer chunk = input.map(FileChannel.MapMode.READ_ONLY,
+                            boundaries[i], boundaries[i + 1] - boundaries[i]);
+                    long chunkStart = boundaries[i];
+                    workers.add(pool.submit(() -> processChunk(chunk, chunkStart, part)));
+                }
+                IngestionSummary summary = new IngestionSummary(0, 0, 0, 0, 0);
+                for (Future<IngestionSummary> worker : workers) {
+                    summary = summary.plus(worker.get());
+                }
+                concatenate(parts, results);
+                return summary;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while ingesting " + orders, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException("Failed to ingest " + orders, e.getCause());
+            } finally {
+                pool.shutdownNow();
+                for (Path part : parts) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the file into at least {@code parallelism} chunks, each ending just after a newline.
+     */
+    private long[] chunkBoundaries(FileChannel input) throws IOException {
+        long size = input.size();
+        long forSize = (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES;
+        int chunks = (int) Math.max(Math.min(parallelism, Math.max(1, size)), forSize);
+        long[] boundaries = new long[chunks + 1];
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        for (int i = 1; i < chunks; i++) {
+            long position = Math.max(boundaries[i - 1], size * i / chunks);
+            boundaries[i] = nextLineStart(input, position, probe);
+        }
+        boundaries[chunks] = size;
+        return boundaries;
+    }
+
+    private static long nextLineStart(FileChannel input, long position, ByteBuffer probe) throws IOException {
+        long size = input.size();
+        while (position < size) {
+            probe.clear();
+            int read = input.read(probe, position);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private IngestionSummary processChunk(MappedByteBuffer chunk, long chunkStart, Path part) {
+        long[] outcomes = new long[Outcome.values().length];
+        ArrayDeque<PendingOrder> inFlight = new ArrayDeque<>(maxInFlightPerWorker);
+        OrderLineParser parser = new OrderLineParser(chunk);
+
+        try (BufferedWriter out = Files.newBufferedWriter(part, StandardCharsets.US_ASCII)) {
+            while (parser.next()) {
+                if (inFlight.size() == maxInFlightPerWorker) {
+                    outcomes[inFlight.poll().writeTo(out).ordinal()]++;
+                }
+                if (parser.isMalformed()) {
+                    inFlight.add(new PendingOrder(chunkStart + parser.lineStart(), null));
+                    continue;
+                }
+                CompletableFuture<PurchaseResult> purchase;
+                try {
+                    purchase = ticketService.purchaseTicketsAsync(parser.accountId(), requestsOf(parser));
+                } catch (RuntimeException e) {
+                    purchase = CompletableFuture.failedFuture(e);
+                }
+                inFlight.add(new PendingOrder(parser.accountId(), purchase));
+            }
+            while (!inFlight.isEmpty()) {
+                outcomes[inFlight.poll().writeTo(out).ordinal()]++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new IngestionSummary(outcomes[Outcome.PURCHASED.ordinal()], outcomes[Outcome.REJECTED.ordinal()],
+                outcomes[Outcome.FAILED.ordinal()], outcomes[Outcome.UNKNOWN.ordinal()],
+                outcomes[Outcome.MALFORMED.ordinal()]);
+    }
+
+    private static void concatenate(List<Path> parts, Path results) throws IOException {
+        try (FileChannel out = FileChannel.open(results, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.wrap((RESULT_HEADER + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII)));
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private enum Outcome {
+        PURCHASED, REJECTED, FAILED, UNKNOWN, MALFORMED
+    }
+
+    /**
+     * A zero in the adult column means the line asked for no adults, so it is left out rather than sent as an
+     * adult request for no tickets, which the service treats as a malformed request.
+     */
+    private static TicketTypeRequest[] requestsOf(OrderLineParser parser) {
+        TicketTypeRequest children = TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, parser.children());
+        TicketTypeRequest infants = TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, parser.infants());
+        if (parser.adults() == 0) {
+            return new TicketTypeRequest[] {children, infants};
+        }
+        return new TicketTypeRequest[] {TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, parser.adults()),
+                children, infants};
+    }
+
+    private static final class PendingOrder {
+
+        // The account id, or the byte offset of a malformed line, which has no account to report.
+        private final long accountIdOrOffset;
+        private final CompletableFuture<PurchaseResult> purchase;
+
+        private PendingOrder(long accountIdOrOffset, CompletableFuture<PurchaseResult> purchase) {
+            this.accountIdOrOffset = accountIdOrOffset;
+            this.purchase = purchase;
+        }
+
+        private Outcome writeTo(BufferedWriter out) throws IOException {
+            Outcome outcome;
+            if (purchase == null) {
+                out.write(",MALFORMED,");
+                out.write(Long.toString(accountIdOrOffset));
+                outcome = Outcome.MALFORMED;
+            } else {
+                out.write(Long.toString(accountIdOrOffset));
+                outcome = writeOutcome(out);
+            }
+            out.newLine();
+            return outcome;
+        }
+
+        private Outcome writeOutcome(BufferedWriter out) throws IOException {
+            try {
+                PurchaseResult result = Futures.await(purchase);
+                out.write(",PURCHASED,");
+                if (result != null) { // A service without an asynchronous path reports no totals
+                    out.write(Integer.toString(result.getTotalAmountPaid()));
+                    out.write(',');
+                    out.write(Integer.toString(result.getTotalSeatsReserved()));
+                }
+                return Outcome.PURCHASED;
+            } catch (InvalidPurchaseException e) {
+                out.write(",REJECTED,");
+                out.write(e.getReason().name());
+                return Outcome.REJECTED;
+            } catch (RuntimeException e) {
+                Outcome outcome = outcomeUnknown(e) ? Outcome.UNKNOWN : Outcome.FAILED;
+                out.write(',');
+                out.write(outcome.name());
+                out.write(',');
+                out.write(String.valueOf(e.getMessage()).replace(',', ';').replace('\n', ' ').replace('\r', ' '));
+                return outcome;
+            }
+        }
+
+        /**
+         * Whether the purchase was given up on rather than turned down, by a timeout here or at a dependency.
+         */
+        private static boolean outcomeUnknown(RuntimeException failure) {
+            if (failure instanceof OutcomeUnknownException) {
+                return true;
+            }
+            return failure instanceof DependencyUnavailableException
+                    && ((DependencyUnavailableException) failure).getReason()
+                    == DependencyUnavailableException.Reason.TIMED_OUT;
+        }
+    }
+}
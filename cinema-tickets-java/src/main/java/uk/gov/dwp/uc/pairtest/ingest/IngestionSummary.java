@@ -0,0 +1,69 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+/**
+ * Immutable Object: how many orders of a bulk file ended in each state.
+ */
+
+public final class IngestionSummary {
+
+    private final long purchased;
+    private final long rejected;
+    private final long failed;
+    private final long unknown;
+    private final long malformed;
+
+    public IngestionSummary(long purchased, long rejected, long failed, long unknown, long malformed) {
+        this.purchased = purchased;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.unknown = unknown;
+        this.malformed = malformed;
+    }
+
+    public long getPurchased() {
+        return purchased;
+    }
+
+    /**
+     * Orders turned down by the purchase rules.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Valid orders that failed downstream, e.g. at the payment gateway.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Valid orders that timed out while they may still have gone through, so they need reconciling.
+     */
+    public long getUnknown() {
+        return unknown;
+    }
+
+    /**
+     * Lines that could not be read as an order.
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    public long getTotal() {
+        return purchased + rejected + failed + unknown + malformed;
+    }
+
+    IngestionSummary plus(IngestionSummary other) {
+        return new IngestionSummary(purchased + other.purchased, rejected + other.rejected,
+                failed + other.failed, unknown + other.unknown, malformed + other.malformed);
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionSummary{purchased=" + purchased + ", rejected=" + rejected
+                + ", failed=" + failed + ", unknown=" + unknown + ", malformed=" + malformed + '}';
+    }
+}
@@ -0,0 +1,127 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads {@code accountId,adults,children,infants} lines straight out of a mapped buffer, without creating a
+ * String per line. Blank lines and {@code #} comments are skipped.
+ */
+final class OrderLineParser {
+
+    private final ByteBuffer buffer;
+
+    private int lineStart;
+    private boolean malformed;
+    private long accountId;
+    private int adults;
+    private int children;
+    private int infants;
+
+    OrderLineParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Advances to the next order line. Returns {@code false} at the end of the buffer.
+     */
+    boolean next() {
+        while (buffer.hasRemaining()) {
+            lineStart = buffer.position();
+            byte first = buffer.get(lineStart);
+            if (first == '\n' || first == '\r' || first == '#') {
+                skipLine();
+                continue;
+            }
+            parseLine();
+            return true;
+        }
+        return false;
+    }
+
+    boolean isMalformed() {
+        return malformed;
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    long accountId() {
+        return accountId;
+    }
+
+    int adults() {
+        return adults;
+    }
+
+    int children() {
+        return children;
+    }
+
+    int infants() {
+        return infants;
+    }
+
+    private void parseLine() {
+        malformed = false;
+        accountId = readNumber(',', Long.MAX_VALUE);
+        adults = (int) readNumber(',', Integer.MAX_VALUE);
+        children = (int) readNumber(',', Integer.MAX_VALUE);
+        infants = (int) readNumber('\n', Integer.MAX_VALUE);
+        if (malformed) {
+            skipLine();
+        }
+    }
+
+    /**
+     * Reads a non-negative decimal up to {@code terminator} (or the end of the buffer) and consumes the terminator.
+     * A value above {@code max} makes the line malformed, so counts are never wrapped when narrowed to an int.
+     */
+    private long readNumber(char terminator, long max) {
+        if (malformed) {
+            return 0;
+        }
+        long value = 0;
+        int digits = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b >= '0' && b <= '9' && digits < 18) {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (value > max) {
+                    malformed = true;
+                    return 0;
+                }
+            } else if (b == terminator && digits > 0) {
+                return value;
+            } else if (b != '\r' || terminator != '\n' || digits == 0 || !atLineEnd()) {
+                if (b == '\n') {
+                    buffer.position(buffer.position() - 1); // Leave the newline for skipLine
+                }
+                malformed = true;
+                return 0;
+            }
+        }
+        if (terminator == '\n' && digits > 0) {
+            return value; // Last line without a trailing newline
+        }
+        malformed = true;
+        return 0;
+    }
+
+    /**
+     * Whether the next byte ends the line, so a {@code \r} just read is part of a {@code \r\n} line end rather than
+     * stray inside a number.
+     */
+    private boolean atLineEnd() {
+        return !buffer.hasRemaining() || buffer.get(buffer.position()) == '\n';
+    }
+
+    private void skipLine() {
+        while (buffer.hasRemaining()) {
+            if (buffer.get() == '\n') {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * {@link PurchaseJournal} kept as an append-only log of fixed-size, memory-mapped segment files.
+ * <p>
+ * Each record is 32 bytes: purchase id, account id, amount, seats, record type and a CRC32 of the rest. A zero
+ * type marks the end of the log, and a bad checksum marks a record torn by a crash. Records are copied into the
+ * mapping, so they outlive a crash of this process straight away; only a crash of the machine can lose them.
+ * <p>
+ * Group commit: a single flusher thread forces the active segment to disk as soon as anyone waits on
+ * {@link #commit()}, and every commit requested while that force runs shares the next one. Records nobody waits
+ * for are forced at least once per commit interval. A segment that fills up is sealed by the flusher too, so
+ * appends never wait for a force.
+ * <p>
+ * {@link #open} reads the whole log and collects the purchases that never finished. {@link #recover} settles them
+ * and deletes the segments that are no longer needed. Call it before the journal takes traffic. Once nothing
+ * from the previous run is left open, full segments are deleted by the flusher as soon as every purchase started
+ * in them, and in the ones before, has settled.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, AutoCloseable {
+
+    static final int RECORD_LENGTH = 32;
+
+    private static final String SEGMENT_PREFIX = "purchases-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int ACCOUNT_OFFSET = 8;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int SEATS_OFFSET = 20;
+    private static final int TYPE_OFFSET = 24;
+    private static final int CHECKSUM_OFFSET = 28;
+
+    private static final byte INTENT = 1;
+    private static final byte PAID = 2;
+    private static final byte PAYMENT_FAILED = 3;
+    private static final byte RESERVED = 4;
+    private static final byte ABANDONED = 5;
+    private static final byte COMPENSATED = 6;
+    private static final byte RESERVATION_STARTED = 7;
+    private static final byte RESERVATION_FAILED = 8;
+
+    private static final CompletableFuture<Void> COMMITTED = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long commitIntervalNanos;
+    private final Map<Long, PendingPurchase> pending;
+    private final Thread flusher;
+
+    // Guards the active segment, the append offset, the commit waiters and the segment bookkeeping below.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32 checksum = new CRC32();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private long segmentNumber;
+    private MappedByteBuffer segment;
+    private int offset;
+    private long nextPurchaseId;
+
+    // Full segments the flusher has yet to force, and settled ones it may delete.
+    private final ArrayDeque<MappedByteBuffer> sealed = new ArrayDeque<>();
+    private final ArrayDeque<Long> unneeded = new ArrayDeque<>();
+    // Every segment still on disk, oldest first. Settled ones at the head are deleted once the previous run's
+    // purchases are settled.
+    private final ArrayDeque<SegmentUse> segmentUses = new ArrayDeque<>();
+    private boolean reclaiming;
+
+    // (segment number << 32) | offset of the end of the last forced record.
+    private volatile long durablePosition;
+    private volatile boolean closed;
+
+    private MappedPurchaseJournal(Path directory, int segmentBytes, Duration commitInterval,
+                                  Map<Long, PendingPurchase> pending) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.pending = pending;
+        this.flusher = new Thread(this::flushUntilClosed, "purchase-journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed, and starts the flusher.
+     *
+     * @param segmentBytes   size of each segment file; rounded down to whole records
+     * @param commitInterval longest a record nobody waits for stays unforced
+     */
+    public static MappedPurchaseJournal open(Path directory, int segmentBytes, Duration commitInterval)
+            throws IOException {
+        if (segmentBytes < RECORD_LENGTH || commitInterval.isNegative() || commitInterval.isZero()) {
+            throw new IllegalArgumentException("Need room for one record and a positive commit interval.");
+        }
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> segments = segments(directory);
+
+        MappedPurchaseJournal journal = new MappedPurchaseJournal(directory,
+                segmentBytes - segmentBytes % RECORD_LENGTH, commitInterval, new LinkedHashMap<>());
+        journal.nextPurchaseId = 1;
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            boolean active = entry.getKey().equals(segments.lastKey());
+            journal.replay(entry.getKey(), entry.getValue(), active);
+            journal.segmentUses.add(new SegmentUse(entry.getKey()));
+        }
+        if (segments.isEmpty()) {
+            journal.roll(0);
+        }
+        journal.reclaiming = journal.pending.isEmpty();
+        journal.durablePosition = journal.position();
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * The purchases the previous run left half-finished, oldest first.
+     */
+    public List<PendingPurchase> pendingPurchases() {
+        lock.lock();
+        try {
+            return new ArrayList<>(pending.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settles every pending purchase and then deletes the segments before the active one. Paid purchases whose
+     * seats were never asked for, or were refused, get their seats. Everything else is closed and reported for
+     * checking by hand: purchases stopped during payment, ones whose seats may be taken but were never
+     * confirmed, and paid ones whose seats cannot be reserved now either. One purchase failing never stops the
+     * rest from being settled.
+     */
+    public RecoverySummary recover(SeatReservationService seatReservationService) throws IOException {
+        int seatsReservedFor = 0;
+        List<PendingPurchase> unconfirmedPayments = new ArrayList<>();
+        List<PendingPurchase> unconfirmedReservations = new ArrayList<>();
+        List<PendingPurchase> failedReservations = new ArrayList<>();
+        for (PendingPurchase purchase : pendingPurchases()) {
+            if (purchase.isReservationStarted()) {
+                append(purchase.getPurchaseId(), 0L, 0, 0, ABANDONED);
+                unconfirmedReservations.add(purchase);
+            } else if (!purchase.isPaid()) {
+                append(purchase.getPurchaseId(), 0L, 0, 0, ABANDONED);
+                unconfirmedPayments.add(purchase);
+            } else {
+                try {
+                    seatReservationService.reserveSeat(purchase.getAccountId(), purchase.getTotalSeatsToAllocate());
+                    reserved(purchase.getPurchaseId());
+                    seatsReservedFor++;
+                } catch (RuntimeException e) {
+                    append(purchase.getPurchaseId(), 0L, 0, 0, ABANDONED);
+                    failedReservations.add(purchase);
+                }
+            }
+            settled(purchase.getPurchaseId());
+        }
+        Futures.await(commit());
+
+        long activeSegment;
+        lock.lock();
+        try {
+            activeSegment = segmentNumber;
+            while (segmentUses.peek().segmentNumber < activeSegment) {
+                segmentUses.poll();
+            }
+            reclaiming = true;
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<Long, Path> entry : segments(directory).headMap(activeSegment).entrySet()) {
+            Files.deleteIfExists(entry.getValue());
+        }
+        return new RecoverySummary(seatsReservedFor, unconfirmedPayments, unconfirmedReservations,
+                failedReservations);
+    }
+
+    @Override
+    public long intent(long accountId, int totalAmountToPay, int totalSeatsToAllocate) {
+        lock.lock();
+        try {
+            long purchaseId = nextPurchaseId++;
+            append(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate, INTENT);
+            segmentUses.peekLast().started(purchaseId);
+            return purchaseId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void paid(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, PAID);
+    }
+
+    @Override
+    public void paymentFailed(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, PAYMENT_FAILED);
+    }
+
+    @Override
+    public void reservationStarted(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, RESERVATION_STARTED);
+    }
+
+    @Override
+    public void reservationFailed(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, RESERVATION_FAILED);
+    }
+
+    @Override
+    public void reserved(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, RESERVED);
+    }
+
+    @Override
+    public void compensated(long purchaseId) {
+        append(purchaseId, 0L, 0, 0, COMPENSATED);
+    }
+
+    @Override
+    public CompletableFuture<Void> commit() {
+        Waiter waiter;
+        lock.lock();
+        try {
+            long position = position();
+            if (position <= durablePosition) {
+                return COMMITTED;
+            }
+            waiter = new Waiter(position);
+            waiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        return waiter.future;
+    }
+
+    /**
+     * Stops the flusher after a final force. Records already appended stay in the log.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void settled(long purchaseId) {
+        lock.lock();
+        try {
+            pending.remove(purchaseId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(long purchaseId, long accountId, int amount, int seats, byte type) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The purchase journal is closed.");
+            }
+            if (offset + RECORD_LENGTH > segment.capacity()) {
+                sealed.add(segment); // Forced by the flusher before anything after it counts as durable
+                roll(segmentNumber + 1);
+            }
+            segment.putLong(offset, purchaseId);
+            segment.putLong(offset + ACCOUNT_OFFSET, accountId);
+            segment.putInt(offset + AMOUNT_OFFSET, amount);
+            segment.putInt(offset + SEATS_OFFSET, seats);
+            segment.put(offset + TYPE_OFFSET, type);
+            segment.putInt(offset + CHECKSUM_OFFSET, checksum(segment, offset));
+            offset += RECORD_LENGTH;
+            if (type != INTENT && type != PAID && type != RESERVATION_STARTED && type != RESERVATION_FAILED) {
+                finished(purchaseId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(long number) {
+        Path file = directory.resolve(segmentName(number));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segmentNumber = number;
+        offset = 0;
+        segmentUses.add(new SegmentUse(number));
+    }
+
+    /**
+     * Counts the purchase off the segment its intent went to, and marks settled segments at the head for deletion.
+     * Purchases started before this run are not counted, so they are ignored. Called under the lock.
+     */
+    private void finished(long purchaseId) {
+        for (Iterator<SegmentUse> it = segmentUses.descendingIterator(); it.hasNext(); ) {
+            SegmentUse use = it.next();
+            if (use.firstPurchaseId <= purchaseId) {
+                use.open--;
+                break;
+            }
+        }
+        while (reclaiming && segmentUses.size() > 1 && segmentUses.peek().open == 0) {
+            unneeded.add(segmentUses.poll().segmentNumber);
+        }
+    }
+
+    private void replay(long number, Path file, boolean active) throws IOException {
+        MappedByteBuffer records;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            records = channel.map(active ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, channel.size() - channel.size() % RECORD_LENGTH);
+        }
+        int end = 0;
+        boolean torn = false;
+        while (end + RECORD_LENGTH <= records.capacity()) {
+            byte type = records.get(end + TYPE_OFFSET);
+            if (type == 0) {
+                break;
+            }
+            if (records.getInt(end + CHECKSUM_OFFSET) != checksum(records, end)) {
+                torn = true;
+                break;
+            }
+            apply(records, end, type);
+            end += RECORD_LENGTH;
+        }
+        if (active) {
+            if (torn) {
+                // Clear the torn tail so later appends cannot run into stale records behind it.
+                for (int i = end; i < records.capacity(); i += Long.BYTES) {
+                    records.putLong(i, 0L);
+                }
+                records.force();
+            }
+            segment = records;
+            segmentNumber = number;
+            offset = end;
+        }
+    }
+
+    private void apply(MappedByteBuffer records, int index, byte type) {
+        long purchaseId = records.getLong(index);
+        nextPurchaseId = Math.max(nextPurchaseId, purchaseId + 1);
+        switch (type) {
+            case INTENT:
+                pending.put(purchaseId, new PendingPurchase(purchaseId, records.getLong(index + ACCOUNT_OFFSET),
+                        records.getInt(index + AMOUNT_OFFSET), records.getInt(index + SEATS_OFFSET), false, false));
+                break;
+            case PAID:
+                pending.computeIfPresent(purchaseId, (id, purchase) -> purchase.markPaid());
+                break;
+            case RESERVATION_STARTED:
+                pending.computeIfPresent(purchaseId, (id, purchase) -> purchase.markReservationStarted(true));
+                break;
+            case RESERVATION_FAILED:
+                // Refused outright, so nothing was taken and recovery can safely ask again.
+                pending.computeIfPresent(purchaseId, (id, purchase) -> purchase.markReservationStarted(false));
+                break;
+            default:
+                pending.remove(purchaseId);
+                break;
+        }
+    }
+
+    private int checksum(MappedByteBuffer records, int index) {
+        checksum.reset();
+        for (int i = 0; i < CHECKSUM_OFFSET; i++) {
+            checksum.update(records.get(index + i));
+        }
+        return (int) checksum.getValue();
+    }
+
+    private long position() {
+        return segmentNumber << 32 | offset;
+    }
+
+    private void flushUntilClosed() {
+        while (!closed) {
+            LockSupport.parkNanos(this, commitIntervalNanos);
+            flush();
+        }
+        flush();
+    }
+
+    private void flush() {
+        MappedByteBuffer active;
+        long position;
+        List<MappedByteBuffer> full;
+        List<Long> deletable;
+        lock.lock();
+        try {
+            active = segment;
+            position = position();
+            full = new ArrayList<>(sealed);
+            sealed.clear();
+            deletable = new ArrayList<>(unneeded);
+            unneeded.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        RuntimeException failure = null;
+        if (position > durablePosition) {
+            try {
+                for (MappedByteBuffer segmentToSeal : full) {
+                    segmentToSeal.force();
+                }
+                active.force();
+                durablePosition = position;
+            } catch (RuntimeException e) {
+                failure = e;
+                lock.lock();
+                try {
+                    for (int i = full.size() - 1; i >= 0; i--) {
+                        sealed.addFirst(full.get(i)); // Forced again on the next attempt
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        deleteSegments(deletable);
+
+        List<Waiter> done = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!waiters.isEmpty() && (failure != null || waiters.peek().position <= durablePosition)) {
+                done.add(waiters.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Complete off this thread, so callers' next stages cannot hold up the next force.
+        for (Waiter waiter : done) {
+            if (failure == null) {
+                waiter.future.completeAsync(() -> null);
+            } else {
+                waiter.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Deletes settled segments; any that cannot be deleted now are tried again on the next flush.
+     */
+    private void deleteSegments(List<Long> numbers) {
+        for (int i = 0; i < numbers.size(); i++) {
+            try {
+                Files.deleteIfExists(directory.resolve(segmentName(numbers.get(i))));
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    unneeded.addAll(numbers.subList(i, numbers.size()));
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private static TreeMap<Long, Path> segments(Path directory) throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        return segments;
+    }
+
+    private static String segmentName(long number) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * How many purchases started in a segment are still open. Ids grow with the log, so a purchase belongs to the
+     * latest segment whose first purchase id is not above its own.
+     */
+    private static final class SegmentUse {
+
+        private final long segmentNumber;
+        private long firstPurchaseId = Long.MAX_VALUE;
+        private int open;
+
+        private SegmentUse(long segmentNumber) {
+            this.segmentNumber = segmentNumber;
+        }
+
+        private void started(long purchaseId) {
+            firstPurchaseId = Math.min(firstPurchaseId, purchaseId);
+            open++;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final long position;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Waiter(long position) {
+            this.position = position;
+        }
+    }
+}
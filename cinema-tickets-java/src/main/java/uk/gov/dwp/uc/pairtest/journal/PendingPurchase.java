@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Immutable Object: a purchase the journal saw start but not finish.
+ */
+
+public final class PendingPurchase {
+
+    private final long purchaseId;
+    private final long accountId;
+    private final int totalAmountToPay;
+    private final int totalSeatsToAllocate;
+    private final boolean paid;
+    private final boolean reservationStarted;
+
+    PendingPurchase(long purchaseId, long accountId, int totalAmountToPay, int totalSeatsToAllocate, boolean paid,
+                    boolean reservationStarted) {
+        this.purchaseId = purchaseId;
+        this.accountId = accountId;
+        this.totalAmountToPay = totalAmountToPay;
+        this.totalSeatsToAllocate = totalSeatsToAllocate;
+        this.paid = paid;
+        this.reservationStarted = reservationStarted;
+    }
+
+    public long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalAmountToPay() {
+        return totalAmountToPay;
+    }
+
+    public int getTotalSeatsToAllocate() {
+        return totalSeatsToAllocate;
+    }
+
+    /**
+     * Whether the payment went through. If not, the gateway may or may not have charged the account.
+     */
+    public boolean isPaid() {
+        return paid;
+    }
+
+    /**
+     * Whether seats were being asked for with no answer recorded. If so, the seat service may or may not have
+     * reserved them.
+     */
+    public boolean isReservationStarted() {
+        return reservationStarted;
+    }
+
+    PendingPurchase markPaid() {
+        return new PendingPurchase(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate, true,
+                reservationStarted);
+    }
+
+    PendingPurchase markReservationStarted(boolean started) {
+        return new PendingPurchase(purchaseId, accountId, totalAmountToPay, totalSeatsToAllocate, paid, started);
+    }
+
+    @Override
+    public String toString() {
+        return "PendingPurchase{purchaseId=" + purchaseId + ", accountId=" + accountId
+                + ", totalAmountToPay=" + totalAmountToPay + ", totalSeatsToAllocate=" + totalSeatsToAllocate
+                + ", paid=" + paid + ", reservationStarted=" + reservationStarted + '}';
+    }
+}
@@ -0,0 +1,85 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Write-ahead record of every purchase kept by {@code TicketServiceImpl}: the intent before anyone is charged,
+ * then the payment outcome, then the reservation. Appends are cheap and never wait for the disk; callers that
+ * need a record to survive a crash wait on {@link #commit()}, which many purchases share.
+ */
+public interface PurchaseJournal {
+
+    /**
+     * Records nothing; {@link #commit()} is always complete.
+     */
+    PurchaseJournal NOOP = new PurchaseJournal() {
+        private final CompletableFuture<Void> committed = CompletableFuture.completedFuture(null);
+
+        @Override
+        public long intent(long accountId, int totalAmountToPay, int totalSeatsToAllocate) {
+            return 0L;
+        }
+
+        @Override
+        public void paid(long purchaseId) {
+        }
+
+        @Override
+        public void paymentFailed(long purchaseId) {
+        }
+
+        @Override
+        public void reservationStarted(long purchaseId) {
+        }
+
+        @Override
+        public void reservationFailed(long purchaseId) {
+        }
+
+        @Override
+        public void reserved(long purchaseId) {
+        }
+
+        @Override
+        public void compensated(long purchaseId) {
+        }
+
+        @Override
+        public CompletableFuture<Void> commit() {
+            return committed;
+        }
+    };
+
+    /**
+     * Records a validated purchase that is about to be paid for and returns its journal id.
+     */
+    long intent(long accountId, int totalAmountToPay, int totalSeatsToAllocate);
+
+    void paid(long purchaseId);
+
+    void paymentFailed(long purchaseId);
+
+    /**
+     * Records that seats are about to be asked for, or could not be given back, so recovery knows it cannot tell
+     * whether they are taken.
+     */
+    void reservationStarted(long purchaseId);
+
+    /**
+     * Records that the seat service turned a paid purchase down, so no seats were taken.
+     */
+    void reservationFailed(long purchaseId);
+
+    void reserved(long purchaseId);
+
+    /**
+     * Records that a purchase which failed part-way has been undone.
+     */
+    void compensated(long purchaseId);
+
+    /**
+     * Completes once everything appended so far is on disk.
+     */
+    CompletableFuture<Void> commit();
+
+}
@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable Object: how the purchases left half-finished by the previous run were settled.
+ */
+
+public final class RecoverySummary {
+
+    private final int seatsReservedFor;
+    private final List<PendingPurchase> unconfirmedPayments;
+    private final List<PendingPurchase> unconfirmedReservations;
+    private final List<PendingPurchase> failedReservations;
+
+    RecoverySummary(int seatsReservedFor, List<PendingPurchase> unconfirmedPayments,
+                    List<PendingPurchase> unconfirmedReservations, List<PendingPurchase> failedReservations) {
+        this.seatsReservedFor = seatsReservedFor;
+        this.unconfirmedPayments = Collections.unmodifiableList(unconfirmedPayments);
+        this.unconfirmedReservations = Collections.unmodifiableList(unconfirmedReservations);
+        this.failedReservations = Collections.unmodifiableList(failedReservations);
+    }
+
+    /**
+     * Paid purchases whose seats were reserved during recovery.
+     */
+    public int getSeatsReservedFor() {
+        return seatsReservedFor;
+    }
+
+    /**
+     * Purchases that stopped while the payment was in progress. They are closed in the journal, and should be
+     * checked against the payment gateway's records.
+     */
+    public List<PendingPurchase> getUnconfirmedPayments() {
+        return unconfirmedPayments;
+    }
+
+    /**
+     * Paid purchases that stopped while their seats were being reserved, and unpaid ones whose seats could not be
+     * given back. Reserving again could seat the customer twice, so they are closed in the journal and should be
+     * checked against the seat service's records.
+     */
+    public List<PendingPurchase> getUnconfirmedReservations() {
+        return unconfirmedReservations;
+    }
+
+    /**
+     * Paid purchases whose seats could not be reserved during recovery either. They are closed in the journal,
+     * and each needs its seats or a refund arranged by hand.
+     */
+    public List<PendingPurchase> getFailedReservations() {
+        return failedReservations;
+    }
+
+    @Override
+    public String toString() {
+        return "RecoverySummary{seatsReservedFor=" + seatsReservedFor
+                + ", unconfirmedPayments=" + unconfirmedPayments
+                + ", unconfirmedReservations=" + unconfirmedReservations
+                + ", failedReservations=" + failedReservations + '}';
+    }
+}
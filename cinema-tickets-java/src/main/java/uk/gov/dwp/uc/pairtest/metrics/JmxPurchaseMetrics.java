@@ -0,0 +1,127 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Default {@link PurchaseMetrics}: per-stage {@link LatencyHistogram}s, in-flight gauges and rejection counters,
+ * all in preallocated arrays indexed by enum ordinal, published as an MXBean.
+ */
+public class JmxPurchaseMetrics implements PurchaseMetrics, PurchaseMetricsMXBean {
+
+    private static final PurchaseStage[] STAGES = PurchaseStage.values();
+    private static final InvalidPurchaseReason[] REASONS = InvalidPurchaseReason.values();
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray inFlight = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray rejections = new AtomicLongArray(REASONS.length);
+
+    public JmxPurchaseMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Creates the metrics and registers them with the platform MBean server as
+     * {@code uk.gov.dwp.uc.pairtest:type=PurchaseMetrics,name=<name>}.
+     */
+    public static JmxPurchaseMetrics register(String name) {
+        JmxPurchaseMetrics metrics = new JmxPurchaseMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("uk.gov.dwp.uc.pairtest:type=PurchaseMetrics,name=" + name);
+            if (server.isRegistered(objectName)) {
+                throw new InstanceAlreadyExistsException(objectName.toString());
+            }
+            server.registerMBean(metrics, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register purchase metrics '" + name + "'.", e);
+        }
+        return metrics;
+    }
+
+    @Override
+    public long start(PurchaseStage stage) {
+        inFlight.incrementAndGet(stage.ordinal());
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(PurchaseStage stage, long startedAt) {
+        latencies[stage.ordinal()].record(System.nanoTime() - startedAt);
+        inFlight.decrementAndGet(stage.ordinal());
+    }
+
+    @Override
+    public void rejected(InvalidPurchaseReason reason) {
+        rejections.incrementAndGet(reason.ordinal());
+    }
+
+    public LatencyHistogram latency(PurchaseStage stage) {
+        return latencies[stage.ordinal()];
+    }
+
+    public long rejections(InvalidPurchaseReason reason) {
+        return rejections.get(reason.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getInFlight() {
+        Map<String, Long> view = new LinkedHashMap<>();
+        for (PurchaseStage stage : STAGES) {
+            view.put(stage.name(), inFlight.get(stage.ordinal()));
+        }
+        return view;
+    }
+
+    @Override
+    public Map<String, Long> getCompleted() {
+        Map<String, Long> view = new LinkedHashMap<>();
+        for (PurchaseStage stage : STAGES) {
+            view.put(stage.name(), latencies[stage.ordinal()].count());
+        }
+        return view;
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        Map<String, Long> view = new LinkedHashMap<>();
+        for (InvalidPurchaseReason reason : REASONS) {
+            view.put(reason.name(), rejections.get(reason.ordinal()));
+        }
+        return view;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMicros() {
+        Map<String, Double> view = new LinkedHashMap<>();
+        for (PurchaseStage stage : STAGES) {
+            LatencyHistogram histogram = latencies[stage.ordinal()];
+            view.put(stage.name() + ".p50", histogram.percentile(50) / NANOS_PER_MICRO);
+            view.put(stage.name() + ".p99", histogram.percentile(99) / NANOS_PER_MICRO);
+            view.put(stage.name() + ".p999", histogram.percentile(99.9) / NANOS_PER_MICRO);
+            view.put(stage.name() + ".max", histogram.percentile(100) / NANOS_PER_MICRO);
+        }
+        return view;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        for (int i = 0; i < REASONS.length; i++) {
+            rejections.set(i, 0L);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+
+/**
+ * Instrumentation hooks called by {@code TicketServiceImpl} on every purchase. Implementations sit on the hot
+ * path, so they must not allocate or block.
+ */
+public interface PurchaseMetrics {
+
+    /**
+     * Does nothing and reads no clock.
+     */
+    PurchaseMetrics NOOP = new PurchaseMetrics() {
+        @Override
+        public long start(PurchaseStage stage) {
+            return 0L;
+        }
+
+        @Override
+        public void stop(PurchaseStage stage, long startedAt) {
+        }
+
+        @Override
+        public void rejected(InvalidPurchaseReason reason) {
+        }
+    };
+
+    /**
+     * Marks a stage as in flight and returns the token to hand back to {@link #stop}.
+     */
+    long start(PurchaseStage stage);
+
+    /**
+     * Marks a stage as finished, successfully or not, and records its latency.
+     */
+    void stop(PurchaseStage stage, long startedAt);
+
+    void rejected(InvalidPurchaseReason reason);
+
+}
@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.util.Map;
+
+/**
+ * Management view of {@link JmxPurchaseMetrics}. Maps are keyed by stage or rejection reason name.
+ */
+public interface PurchaseMetricsMXBean {
+
+    Map<String, Long> getInFlight();
+
+    Map<String, Long> getCompleted();
+
+    Map<String, Long> getRejections();
+
+    /**
+     * Latency per stage in microseconds, keyed {@code STAGE.p50}, {@code STAGE.p99}, {@code STAGE.p999}
+     * and {@code STAGE.max}.
+     */
+    Map<String, Double> getLatencyMicros();
+
+    void reset();
+
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * The parts of a purchase that are timed separately. {@link #PURCHASE} spans the whole call.
+ */
+public enum PurchaseStage {
+    PURCHASE,
+    VALIDATION,
+    PAYMENT,
+    RESERVATION
+}
@@ -0,0 +1,115 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import thirdparty.paymentgateway.PaymentInstruction;
+import thirdparty.paymentgateway.PaymentOutcome;
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+import uk.gov.dwp.uc.pairtest.util.MicroBatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sits between {@code TicketServiceImpl} and the payment gateway. Payments from concurrent purchases are
+ * gathered over a short window and sent with one {@link TicketPaymentService#makePayments} call; each
+ * caller still sees only its own payment succeed or fail.
+ */
+public class CoalescingPaymentDispatcher implements TicketPaymentService, AutoCloseable {
+
+    private final TicketPaymentService gateway;
+    private final MicroBatcher<PendingPayment> batcher;
+
+    public CoalescingPaymentDispatcher(TicketPaymentService gateway, int maxBatchSize, Duration maxDelay) {
+        this(gateway, maxBatchSize, maxDelay, 1);
+    }
+
+    /**
+     * Same as {@link #CoalescingPaymentDispatcher(TicketPaymentService, int, Duration)}, with up to
+     * {@code maxBatchesInFlight} batches at the gateway at once.
+     */
+    public CoalescingPaymentDispatcher(TicketPaymentService gateway, int maxBatchSize, Duration maxDelay,
+                                       int maxBatchesInFlight) {
+        this.gateway = gateway;
+        this.batcher = new MicroBatcher<>("payment-dispatcher", maxBatchSize, maxDelay, maxBatchesInFlight,
+                this::flush,
+                (payment, failure) -> payment.result.completeExceptionally(failure));
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        Futures.await(makePaymentAsync(accountId, totalAmountToPay));
+    }
+
+    @Override
+    public CompletableFuture<Void> makePaymentAsync(long accountId, int totalAmountToPay) {
+        PendingPayment payment = new PendingPayment(new PaymentInstruction(accountId, totalAmountToPay));
+        try {
+            batcher.submit(payment);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return payment.result;
+    }
+
+    @Override
+    public List<PaymentOutcome> makePayments(List<PaymentInstruction> instructions) {
+        return gateway.makePayments(instructions); // Already a batch
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        gateway.refundPayment(accountId, totalAmountToRefund); // Rare, so never batched
+    }
+
+    @Override
+    public CompletableFuture<Void> refundPaymentAsync(long accountId, int totalAmountToRefund) {
+        return gateway.refundPaymentAsync(accountId, totalAmountToRefund);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        batcher.close();
+    }
+
+    private void flush(List<PendingPayment> batch) {
+        List<PaymentInstruction> instructions = new ArrayList<>(batch.size());
+        for (PendingPayment payment : batch) {
+            instructions.add(payment.instruction);
+        }
+
+        List<PaymentOutcome> outcomes;
+        try {
+            outcomes = gateway.makePayments(instructions);
+        } catch (RuntimeException e) {
+            // The whole round trip failed, so every payment in it did.
+            for (PendingPayment payment : batch) {
+                payment.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<Void> result = batch.get(i).result;
+            if (i >= outcomes.size()) {
+                result.completeExceptionally(new IllegalStateException("Payment gateway returned no outcome."));
+            } else if (outcomes.get(i).isPaid()) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(outcomes.get(i).getFailure());
+            }
+        }
+    }
+
+    private static final class PendingPayment {
+
+        private final PaymentInstruction instruction;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private PendingPayment(PaymentInstruction instruction) {
+            this.instruction = instruction;
+        }
+    }
+}
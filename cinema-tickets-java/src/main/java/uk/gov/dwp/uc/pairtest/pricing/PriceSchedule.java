@@ -0,0 +1,140 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable, fully precomputed set of price tables. Every lookup is a couple of array reads: the standard and time-of-day
+ * rules are resolved into one table per hour of the day when the schedule is built.
+ * <p>
+ * Precedence, highest first: an active promotion, the screening's own prices, a time-of-day band, the
+ * standard prices. Build one with {@link #builder()} and publish it through {@link PricingEngine}.
+ */
+public final class PriceSchedule {
+
+    static final int HOURS = 24;
+
+    private final PriceTable[] standardByHour;
+    private final PriceTable[] screeningPrices;
+    private final Promotion[] promotions;
+    private final boolean timeInvariant;
+
+    private PriceSchedule(PriceTable[] standardByHour, PriceTable[] screeningPrices, Promotion[] promotions) {
+        this.standardByHour = standardByHour;
+        this.screeningPrices = screeningPrices;
+        this.promotions = promotions;
+        this.timeInvariant = promotions.length == 0 && sameTableAllDay(standardByHour);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether prices never depend on the time, so the clock need not be read at all.
+     */
+    boolean isTimeInvariant() {
+        return timeInvariant;
+    }
+
+    /**
+     * @param screeningId the screening being booked, or a negative value when it is not known
+     */
+    PriceTable lookup(int screeningId, int hourOfDay, long epochMillis) {
+        for (Promotion promotion : promotions) {
+            if (epochMillis >= promotion.fromMillis && epochMillis < promotion.untilMillis) {
+                return promotion.prices;
+            }
+        }
+        if (screeningId >= 0 && screeningId < screeningPrices.length && screeningPrices[screeningId] != null) {
+            return screeningPrices[screeningId];
+        }
+        return standardByHour[hourOfDay];
+    }
+
+    private static boolean sameTableAllDay(PriceTable[] byHour) {
+        for (PriceTable prices : byHour) {
+            if (prices != byHour[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final class Builder {
+
+        private PriceTable standard = PriceTable.STANDARD;
+        private final PriceTable[] bands = new PriceTable[HOURS];
+        private final List<PriceTable> screenings = new ArrayList<>();
+        private final List<Promotion> promotions = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder standard(PriceTable prices) {
+            this.standard = prices;
+            return this;
+        }
+
+        /**
+         * Prices for the hours {@code fromHour} (inclusive) to {@code toHour} (exclusive); wraps past midnight
+         * when {@code toHour <= fromHour}. Later bands win where they overlap.
+         */
+        public Builder timeOfDay(int fromHour, int toHour, PriceTable prices) {
+            if (fromHour < 0 || fromHour >= HOURS || toHour < 0 || toHour > HOURS) {
+                throw new IllegalArgumentException("Hours must be between 0 and 24.");
+            }
+            int hour = fromHour;
+            do {
+                bands[hour] = prices;
+                hour = (hour + 1) % HOURS;
+            } while (hour != toHour % HOURS);
+            return this;
+        }
+
+        /**
+         * Prices for one screening; they replace both the standard and the time-of-day prices.
+         */
+        public Builder screening(int screeningId, PriceTable prices) {
+            if (screeningId < 0) {
+                throw new IllegalArgumentException("Screening ids cannot be negative.");
+            }
+            while (screenings.size() <= screeningId) {
+                screenings.add(null);
+            }
+            screenings.set(screeningId, prices);
+            return this;
+        }
+
+        /**
+         * Prices for every screening between two instants. The earliest-added promotion wins where they overlap.
+         */
+        public Builder promotion(Instant from, Instant until, PriceTable prices) {
+            promotions.add(new Promotion(from.toEpochMilli(), until.toEpochMilli(), prices));
+            return this;
+        }
+
+        public PriceSchedule build() {
+            PriceTable[] standardByHour = new PriceTable[HOURS];
+            for (int hour = 0; hour < HOURS; hour++) {
+                standardByHour[hour] = bands[hour] != null ? bands[hour] : standard;
+            }
+            return new PriceSchedule(standardByHour, screenings.toArray(new PriceTable[0]),
+                    promotions.toArray(new Promotion[0]));
+        }
+    }
+
+    private static final class Promotion {
+
+        private final long fromMillis;
+        private final long untilMillis;
+        private final PriceTable prices;
+
+        private Promotion(long fromMillis, long untilMillis, PriceTable prices) {
+            this.fromMillis = fromMillis;
+            this.untilMillis = untilMillis;
+            this.prices = prices;
+        }
+    }
+}
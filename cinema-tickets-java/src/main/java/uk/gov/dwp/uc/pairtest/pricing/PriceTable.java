@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Object: price of one ticket of each type, held in an array indexed by
+ * {@link TicketTypeRequest.Type#ordinal()}.
+ */
+
+public final class PriceTable {
+
+    public static final PriceTable STANDARD = new PriceTable(25, 15, 0);
+
+    private final int[] pricesByType;
+
+    public PriceTable(int adultPrice, int childPrice, int infantPrice) {
+        if (adultPrice < 0 || childPrice < 0 || infantPrice < 0) {
+            throw new IllegalArgumentException("Ticket prices cannot be negative.");
+        }
+        this.pricesByType = new int[TicketTypeRequest.Type.values().length];
+        this.pricesByType[TicketTypeRequest.Type.ADULT.ordinal()] = adultPrice;
+        this.pricesByType[TicketTypeRequest.Type.CHILD.ordinal()] = childPrice;
+        this.pricesByType[TicketTypeRequest.Type.INFANT.ordinal()] = infantPrice;
+    }
+
+    public int price(TicketTypeRequest.Type type) {
+        return pricesByType[type.ordinal()];
+    }
+
+    public int total(int adults, int children, int infants) {
+        return adults * pricesByType[0] + children * pricesByType[1] + infants * pricesByType[2];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PriceTable && Arrays.equals(pricesByType, ((PriceTable) o).pricesByType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(pricesByType);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceTable" + Arrays.toString(pricesByType);
+    }
+}
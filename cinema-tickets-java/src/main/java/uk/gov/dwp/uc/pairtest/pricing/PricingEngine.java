@@ -0,0 +1,71 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.zone.ZoneRules;
+
+/**
+ * Serves ticket prices from the currently published {@link PriceSchedule}. Publishing swaps in a whole new
+ * immutable schedule, so readers never lock and never see a half-applied price change.
+ */
+public final class PricingEngine {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int SECONDS_PER_HOUR = 3_600;
+
+    private final Clock clock;
+    private final ZoneRules zoneRules;
+    private final boolean fixedOffset;
+    private final int fixedOffsetSeconds;
+    private volatile PriceSchedule schedule;
+
+    public PricingEngine(PriceSchedule schedule) {
+        this(schedule, Clock.systemDefaultZone());
+    }
+
+    public PricingEngine(PriceSchedule schedule, Clock clock) {
+        this.schedule = schedule;
+        this.clock = clock;
+        this.zoneRules = clock.getZone().getRules();
+        this.fixedOffset = zoneRules.isFixedOffset();
+        this.fixedOffsetSeconds = fixedOffset ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+    }
+
+    /**
+     * Standard prices only, as charged before the pricing engine existed.
+     */
+    public static PricingEngine standard() {
+        return new PricingEngine(PriceSchedule.builder().build());
+    }
+
+    public void publish(PriceSchedule next) {
+        this.schedule = next;
+    }
+
+    public PriceSchedule schedule() {
+        return schedule;
+    }
+
+    /**
+     * Prices in force now for a purchase whose screening is not known.
+     */
+    public PriceTable currentPrices() {
+        return currentPrices(-1);
+    }
+
+    public PriceTable currentPrices(int screeningId) {
+        PriceSchedule current = schedule;
+        if (current.isTimeInvariant()) {
+            return current.lookup(screeningId, 0, 0L);
+        }
+        long now = clock.millis();
+        return current.lookup(screeningId, hourOfDay(now), now);
+    }
+
+    private int hourOfDay(long epochMillis) {
+        int offsetSeconds = fixedOffset
+                ? fixedOffsetSeconds
+                : zoneRules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        return (int) (Math.floorMod(Math.floorDiv(epochMillis, 1_000L) + offsetSeconds, SECONDS_PER_DAY) / SECONDS_PER_HOUR);
+    }
+}
@@ -0,0 +1,125 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a dependency that keeps failing, so callers fail fast instead of queueing behind it.
+ * <ul>
+ *     <li>{@link State#CLOSED}: calls go through; {@code failureThreshold} failures in a row open the breaker</li>
+ *     <li>{@link State#OPEN}: calls are refused for {@code openDuration}</li>
+ *     <li>{@link State#HALF_OPEN}: up to {@code probes} trial calls go through; if they all succeed the breaker
+ *     closes, and the first failure opens it again</li>
+ * </ul>
+ * Each permitted call gets the phase it was admitted in, so outcomes that arrive after the breaker has moved on
+ * are not counted against the new phase: each closed phase counts its own failures in a row. Permission in the
+ * closed state is a single volatile read.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Handed out with each permitted call and passed back with its outcome.
+     */
+    public static final class Phase {
+
+        private final State state;
+        private final long since;
+        private final AtomicInteger probesStarted = new AtomicInteger();
+        private final AtomicInteger probesSucceeded = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private Phase(State state, long since) {
+            this.state = state;
+            this.since = since;
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int probes;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Phase> phase;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int probes) {
+        this(name, failureThreshold, openDuration, probes, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, int probes, LongSupplier clock) {
+        if (failureThreshold <= 0 || probes <= 0 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Failure threshold and probes must be greater than zero.");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.probes = probes;
+        this.clock = clock;
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED, clock.getAsLong()));
+    }
+
+    /**
+     * Asks to make a call. Returns the phase to report the outcome against, or {@code null} if the call must not
+     * be made.
+     */
+    public Phase tryAcquire() {
+        Phase current = phase.get();
+        switch (current.state) {
+            case CLOSED:
+                return current;
+            case OPEN:
+                if (clock.getAsLong() - current.since < openNanos) {
+                    return null;
+                }
+                phase.compareAndSet(current, new Phase(State.HALF_OPEN, clock.getAsLong()));
+                return tryAcquire();
+            default:
+                while (true) {
+                    int started = current.probesStarted.get();
+                    if (started >= probes) {
+                        return null;
+                    }
+                    if (current.probesStarted.compareAndSet(started, started + 1)) {
+                        return current;
+                    }
+                }
+        }
+    }
+
+    public void onSuccess(Phase admittedIn) {
+        if (admittedIn.state == State.CLOSED) {
+            if (admittedIn.consecutiveFailures.get() != 0) {
+                admittedIn.consecutiveFailures.set(0);
+            }
+        } else if (admittedIn.state == State.HALF_OPEN && admittedIn.probesSucceeded.incrementAndGet() >= probes) {
+            phase.compareAndSet(admittedIn, new Phase(State.CLOSED, clock.getAsLong()));
+        }
+    }
+
+    public void onFailure(Phase admittedIn) {
+        if (admittedIn.state == State.CLOSED && admittedIn.consecutiveFailures.incrementAndGet() < failureThreshold) {
+            return;
+        }
+        // Only the phase the call was admitted in can be left, so late failures cannot reopen a fresh phase.
+        phase.compareAndSet(admittedIn, new Phase(State.OPEN, clock.getAsLong()));
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{name=" + name + ", state=" + getState() + '}';
+    }
+}
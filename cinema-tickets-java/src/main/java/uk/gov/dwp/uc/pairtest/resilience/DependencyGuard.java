@@ -0,0 +1,177 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Isolates one third-party dependency: a {@link CircuitBreaker}, a bulkhead and a timeout.
+ * <p>
+ * Calls are started on the bulkhead's own threads, at most {@code maxConcurrentCalls} at a time, so a dependency
+ * that hangs ties up its own threads and nobody else's. A permit is held until the dependency actually answers,
+ * even if the caller has given up on it, so a stalled dependency fills its bulkhead and further calls are refused
+ * at once rather than piling up.
+ * <p>
+ * Only timeouts and the faults {@code isFault} picks out count against the circuit breaker; by default those are
+ * I/O and rejected-execution failures. Any other failure is the dependency answering, e.g. a declined card or a
+ * sold-out screening, and counts as a success. Compensating calls go through {@link #compensate(Supplier)}, which
+ * neither the breaker nor the bulkhead can refuse.
+ */
+public class DependencyGuard implements AutoCloseable {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final long timeoutNanos;
+    private final ExecutorService executor;
+    private final ExecutorService compensationExecutor;
+    private final Predicate<? super Throwable> isFault;
+
+    public DependencyGuard(String name, CircuitBreaker circuitBreaker, int maxConcurrentCalls, Duration timeout) {
+        this(name, circuitBreaker, maxConcurrentCalls, timeout, DependencyGuard::isInfrastructureFailure);
+    }
+
+    public DependencyGuard(String name, CircuitBreaker circuitBreaker, int maxConcurrentCalls, Duration timeout,
+                           Predicate<? super Throwable> isFault) {
+        if (maxConcurrentCalls <= 0 || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Need at least one concurrent call and a positive timeout.");
+        }
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.timeoutNanos = timeout.toNanos();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentCalls, daemonThreads(name + "-bulkhead-"));
+        this.compensationExecutor = Executors.newCachedThreadPool(daemonThreads(name + "-compensation-"));
+        this.isFault = isFault;
+    }
+
+    /**
+     * Starts the call on a bulkhead thread and returns its result, or fails with
+     * {@link DependencyUnavailableException} if the call was refused or timed out.
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new DependencyUnavailableException(name, DependencyUnavailableException.Reason.BULKHEAD_FULL));
+        }
+        CircuitBreaker.Phase phase = circuitBreaker.tryAcquire();
+        if (phase == null) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(
+                    new DependencyUnavailableException(name, DependencyUnavailableException.Reason.CIRCUIT_OPEN));
+        }
+
+        CompletableFuture<T> answer;
+        try {
+            // The permit goes back before anyone waiting on the answer hears of it.
+            answer = CompletableFuture.supplyAsync(call, executor).thenCompose(started -> started)
+                    .whenComplete((result, failure) -> bulkhead.release());
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure(phase);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return answer.copy()
+                .orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .handle((result, failure) -> {
+                    if (failure == null) {
+                        circuitBreaker.onSuccess(phase);
+                        return result;
+                    }
+                    Throwable cause = Futures.unwrap(failure);
+                    if (cause instanceof TimeoutException) {
+                        circuitBreaker.onFailure(phase);
+                        throw new DependencyUnavailableException(name, DependencyUnavailableException.Reason.TIMED_OUT);
+                    }
+                    if (isFault.test(cause)) {
+                        circuitBreaker.onFailure(phase);
+                    } else {
+                        circuitBreaker.onSuccess(phase);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Starts a call that undoes part of a failed purchase, such as a refund or a seat release. It is never shed:
+     * it skips the breaker and the bulkhead, and runs on threads of its own so calls stuck in the bulkhead cannot
+     * hold it up. It is still given up on after the timeout, and its outcome is not counted by the breaker.
+     */
+    public <T> CompletableFuture<T> compensate(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> answer;
+        try {
+            answer = CompletableFuture.supplyAsync(call, compensationExecutor).thenCompose(started -> started);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return answer.copy()
+                .orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .handle((result, failure) -> {
+                    if (failure == null) {
+                        return result;
+                    }
+                    Throwable cause = Futures.unwrap(failure);
+                    if (cause instanceof TimeoutException) {
+                        throw new DependencyUnavailableException(name, DependencyUnavailableException.Reason.TIMED_OUT);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Calls currently holding a bulkhead permit, including ones the caller has already timed out on.
+     */
+    public int inFlight() {
+        return maxConcurrentCalls - bulkhead.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        compensationExecutor.shutdownNow();
+    }
+
+    /**
+     * The default fault test: the dependency could not be reached or could not take the call.
+     */
+    public static boolean isInfrastructureFailure(Throwable failure) {
+        return failure instanceof IOException
+                || failure instanceof UncheckedIOException
+                || failure instanceof RejectedExecutionException
+                || failure instanceof DependencyUnavailableException;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+/**
+ * A call to a third-party service was not made, or was given up on, to protect the rest of the system.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    public enum Reason {
+        /** The dependency's circuit breaker is open. */
+        CIRCUIT_OPEN,
+        /** The dependency already has as many calls in flight as its bulkhead allows. */
+        BULKHEAD_FULL,
+        /** The dependency did not answer in time. */
+        TIMED_OUT
+    }
+
+    private final String dependency;
+    private final Reason reason;
+
+    /**
+     * Shed load: the reason says everything, so no stack trace is captured. Suppression stays on, so a failed
+     * compensation can still be noted on it.
+     */
+    public DependencyUnavailableException(String dependency, Reason reason) {
+        super(dependency + " unavailable: " + reason, null, true, false);
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
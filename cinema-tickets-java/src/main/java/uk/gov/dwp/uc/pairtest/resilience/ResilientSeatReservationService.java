@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.ReservationOutcome;
+import thirdparty.seatbooking.SeatRequest;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.seating.SeatAvailability;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs every call to the seat reservation service through its own {@link DependencyGuard}. A slow seat service
+ * then times out the purchases that reach it and, once its breaker opens, fails new ones at once, instead of
+ * holding every request thread in {@code reserveSeat}. Releases, of seats or of holds, are never shed.
+ * Availability checks are local, so they go straight to the backend.
+ */
+public class ResilientSeatReservationService implements SeatReservationService, SeatAvailability {
+
+    private final SeatReservationService backend;
+    private final SeatAvailability availability;
+    private final DependencyGuard guard;
+
+    public ResilientSeatReservationService(SeatReservationService backend, DependencyGuard guard) {
+        this.backend = backend;
+        this.availability = SeatAvailability.of(backend);
+        this.guard = guard;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        Futures.await(reserveSeatAsync(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSeatAsync(long accountId, int totalSeatsToAllocate) {
+        return guard.call(() -> backend.reserveSeatAsync(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public List<ReservationOutcome> reserveSeats(List<SeatRequest> requests) {
+        return Futures.await(guard.call(() -> CompletableFuture.completedFuture(backend.reserveSeats(requests))));
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        Futures.await(releaseSeatAsync(accountId, totalSeatsToRelease));
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseSeatAsync(long accountId, int totalSeatsToRelease) {
+        return guard.compensate(() -> backend.releaseSeatAsync(accountId, totalSeatsToRelease));
+    }
+
+    @Override
+    public long holdSeats(long accountId, int totalSeatsToHold, Duration ttl) {
+        return Futures.await(guard.call(() ->
+                CompletableFuture.completedFuture(backend.holdSeats(accountId, totalSeatsToHold, ttl))));
+    }
+
+    @Override
+    public void confirmHold(long accountId, long holdToken, int totalSeatsToAllocate) {
+        Futures.await(guard.call(() -> {
+            backend.confirmHold(accountId, holdToken, totalSeatsToAllocate);
+            return CompletableFuture.<Void>completedFuture(null);
+        }));
+    }
+
+    @Override
+    public void releaseHold(long accountId, long holdToken) {
+        Futures.await(guard.compensate(() -> {
+            backend.releaseHold(accountId, holdToken);
+            return CompletableFuture.<Void>completedFuture(null);
+        }));
+    }
+
+    @Override
+    public boolean canAllocate(int totalSeatsToAllocate) {
+        return availability.canAllocate(totalSeatsToAllocate);
+    }
+
+    @Override
+    public int maxSeatsPerOrder() {
+        return availability.maxSeatsPerOrder();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return guard.getCircuitState();
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.PaymentInstruction;
+import thirdparty.paymentgateway.PaymentOutcome;
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs every call to the payment gateway through its own {@link DependencyGuard}, so a slow or failing gateway
+ * cannot hold up seat reservations or the threads of other purchases. Refunds are never shed.
+ */
+public class ResilientTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService gateway;
+    private final DependencyGuard guard;
+
+    public ResilientTicketPaymentService(TicketPaymentService gateway, DependencyGuard guard) {
+        this.gateway = gateway;
+        this.guard = guard;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        Futures.await(makePaymentAsync(accountId, totalAmountToPay));
+    }
+
+    @Override
+    public CompletableFuture<Void> makePaymentAsync(long accountId, int totalAmountToPay) {
+        return guard.call(() -> gateway.makePaymentAsync(accountId, totalAmountToPay));
+    }
+
+    @Override
+    public List<PaymentOutcome> makePayments(List<PaymentInstruction> instructions) {
+        return Futures.await(guard.call(() -> CompletableFuture.completedFuture(gateway.makePayments(instructions))));
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        Futures.await(refundPaymentAsync(accountId, totalAmountToRefund));
+    }
+
+    @Override
+    public CompletableFuture<Void> refundPaymentAsync(long accountId, int totalAmountToRefund) {
+        return guard.compensate(() -> gateway.refundPaymentAsync(accountId, totalAmountToRefund));
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return guard.getCircuitState();
+    }
+}
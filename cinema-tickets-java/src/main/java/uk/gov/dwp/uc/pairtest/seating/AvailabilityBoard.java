@@ -0,0 +1,169 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Free seats per screening for browse traffic, served from immutable {@link AvailabilitySnapshot}s so a query
+ * is one volatile read and never touches the seat maps.
+ * <p>
+ * Seat maps report each committed claim or release as a {@link SeatCountListener}; that only adds the change to
+ * the screening's pending counter, which sits on its own cache line so screenings do not slow each other down.
+ * {@link #publish()} folds the pending changes into the next snapshot and sends subscribers the delta. Readers
+ * therefore see counts at most one publish interval old, and nothing is recomputed per query.
+ */
+public final class AvailabilityBoard implements SeatCountListener {
+
+    // One screening per 64-byte line of the pending counters.
+    private static final int PAD_SHIFT = 4;
+
+    private final int maxScreenings;
+    private final AtomicIntegerArray pending;
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final List<Consumer<? super AvailabilityDelta>> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile AvailabilitySnapshot snapshot = AvailabilitySnapshot.EMPTY;
+
+    public AvailabilityBoard(int maxScreenings) {
+        if (maxScreenings <= 0) {
+            throw new IllegalArgumentException("maxScreenings must be greater than zero.");
+        }
+        this.maxScreenings = maxScreenings;
+        this.pending = new AtomicIntegerArray(maxScreenings << PAD_SHIFT);
+    }
+
+    public AvailabilitySnapshot snapshot() {
+        return snapshot;
+    }
+
+    public int remainingSeats(int screeningId) {
+        return snapshot.remainingSeats(screeningId);
+    }
+
+    /**
+     * Adds the screening to the board at once, rather than at the next publish, so it can be queried as soon as
+     * it exists. This is the only place screening ids are checked against the board's size: a seat map whose
+     * screening does not fit fails to register, so it never reports changes here. Changes already reported for
+     * the screening are folded in, not dropped.
+     */
+    @Override
+    public void screeningAdded(int screeningId, int seats) {
+        if (screeningId < 0 || screeningId >= maxScreenings) {
+            throw new IllegalArgumentException("Screening " + screeningId + " is outside this board's "
+                    + maxScreenings + " screenings.");
+        }
+        publishLock.lock();
+        try {
+            AvailabilitySnapshot current = snapshot;
+            int length = Math.max(screeningId + 1, current.knownLength());
+            int[] remaining = current.copyOfRemaining(length);
+            boolean[] known = current.copyOfKnown(length);
+            remaining[screeningId] = seats + pending.getAndSet(screeningId << PAD_SHIFT, 0);
+            known[screeningId] = true;
+            publish(current, new AvailabilitySnapshot(current.getVersion() + 1, remaining, known),
+                    new int[] {screeningId}, new int[] {remaining[screeningId]});
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Unchecked: only seat maps that {@link #screeningAdded registered} report here.
+     */
+    @Override
+    public void seatsChanged(int screeningId, int change) {
+        pending.addAndGet(screeningId << PAD_SHIFT, change);
+    }
+
+    /**
+     * Folds pending changes into a new snapshot and sends its delta to subscribers. Does nothing if nothing
+     * changed. Returns the version now being served.
+     */
+    public long publish() {
+        publishLock.lock();
+        try {
+            AvailabilitySnapshot current = snapshot;
+            int length = current.knownLength();
+            int[] remaining = null;
+            int[] changedIds = null;
+            int changed = 0;
+            for (int id = 0; id < length; id++) {
+                int index = id << PAD_SHIFT;
+                if (pending.get(index) == 0) {
+                    continue;
+                }
+                int change = pending.getAndSet(index, 0);
+                if (remaining == null) {
+                    remaining = current.copyOfRemaining(length);
+                    changedIds = new int[length];
+                }
+                remaining[id] += change;
+                changedIds[changed++] = id;
+            }
+            if (changed == 0) {
+                return current.getVersion();
+            }
+
+            int[] ids = new int[changed];
+            int[] counts = new int[changed];
+            for (int i = 0; i < changed; i++) {
+                ids[i] = changedIds[i];
+                counts[i] = remaining[ids[i]];
+            }
+            AvailabilitySnapshot next = new AvailabilitySnapshot(current.getVersion() + 1, remaining,
+                    current.copyOfKnown(length));
+            publish(current, next, ids, counts);
+            return next.getVersion();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes every {@code interval} on the given scheduler.
+     */
+    public ScheduledFuture<?> publishOn(ScheduledExecutorService scheduler, Duration interval) {
+        return scheduler.scheduleAtFixedRate(this::publish, interval.toNanos(), interval.toNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sends the subscriber every delta after the returned snapshot, on the publishing thread. A subscriber that
+     * throws is dropped.
+     */
+    public AvailabilitySnapshot subscribe(Consumer<? super AvailabilityDelta> subscriber) {
+        publishLock.lock();
+        try {
+            subscribers.add(subscriber);
+            return snapshot;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    public void unsubscribe(Consumer<? super AvailabilityDelta> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private void publish(AvailabilitySnapshot current, AvailabilitySnapshot next, int[] ids, int[] counts) {
+        snapshot = next;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        AvailabilityDelta delta = new AvailabilityDelta(current.getVersion(), next.getVersion(), ids, counts);
+        for (Consumer<? super AvailabilityDelta> subscriber : subscribers) {
+            try {
+                subscriber.accept(delta);
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+/**
+ * Immutable Object: the screenings whose free seat count changed between two consecutive versions of an
+ * {@link AvailabilityBoard}, with their new counts. Applying every delta in order to the snapshot returned by
+ * {@link AvailabilityBoard#subscribe} keeps a copy up to date.
+ */
+public final class AvailabilityDelta {
+
+    private final long fromVersion;
+    private final long toVersion;
+    private final int[] screeningIds;
+    private final int[] remaining;
+
+    AvailabilityDelta(long fromVersion, long toVersion, int[] screeningIds, int[] remaining) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.screeningIds = screeningIds;
+        this.remaining = remaining;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public int size() {
+        return screeningIds.length;
+    }
+
+    public int screeningId(int index) {
+        return screeningIds[index];
+    }
+
+    public int remainingSeats(int index) {
+        return remaining[index];
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityDelta{" + fromVersion + " -> " + toVersion + ", screenings=" + size() + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Object: free seats per screening as of one version of an {@link AvailabilityBoard}.
+ */
+public final class AvailabilitySnapshot {
+
+    static final AvailabilitySnapshot EMPTY = new AvailabilitySnapshot(0L, new int[0], new boolean[0]);
+
+    private final long version;
+    private final int[] remaining;
+    private final boolean[] known;
+
+    AvailabilitySnapshot(long version, int[] remaining, boolean[] known) {
+        this.version = version;
+        this.remaining = remaining;
+        this.known = known;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int remainingSeats(int screeningId) {
+        if (!isKnown(screeningId)) {
+            throw new IllegalArgumentException("Unknown screening: " + screeningId);
+        }
+        return remaining[screeningId];
+    }
+
+    public boolean isKnown(int screeningId) {
+        return screeningId >= 0 && screeningId < known.length && known[screeningId];
+    }
+
+    int knownLength() {
+        return known.length;
+    }
+
+    int[] copyOfRemaining(int length) {
+        return Arrays.copyOf(remaining, length);
+    }
+
+    boolean[] copyOfKnown(int length) {
+        return Arrays.copyOf(known, length);
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilitySnapshot{version=" + version + '}';
+    }
+}
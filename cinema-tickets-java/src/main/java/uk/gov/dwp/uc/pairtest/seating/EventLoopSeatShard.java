@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process shard: a single thread drains a bounded mailbox and is the only writer of the shard's seats,
+ * so shards scale with cores without sharing any state. A full mailbox rejects new work instead of queueing
+ * without limit.
+ */
+public class EventLoopSeatShard implements SeatShard, AutoCloseable {
+
+    private final int shardIndex;
+    private final int shardCount;
+    private final ExecutorService loop;
+    private final SeatCountListener listener;
+
+    // Touched only by the loop thread. Screening n lives at slot n / shardCount.
+    private ScreeningSeatMap[] screenings = new ScreeningSeatMap[16];
+
+    public EventLoopSeatShard(int shardIndex, int shardCount, int mailboxCapacity) {
+        this(shardIndex, shardCount, mailboxCapacity, SeatCountListener.NOOP);
+    }
+
+    /**
+     * @param listener told about every seat count change, on the loop thread
+     */
+    public EventLoopSeatShard(int shardIndex, int shardCount, int mailboxCapacity, SeatCountListener listener) {
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.loop = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(mailboxCapacity), task -> {
+                    Thread thread = new Thread(task, "seat-shard-" + shardIndex);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.listener = listener;
+    }
+
+    @Override
+    public CompletableFuture<Void> addScreening(int screeningId, int rows, int seatsPerRow) {
+        return submit(() -> {
+            int slot = slot(screeningId);
+            if (slot >= screenings.length) {
+                screenings = Arrays.copyOf(screenings, Math.max(slot + 1, screenings.length * 2));
+            }
+            screenings[slot] = new ScreeningSeatMap(screeningId, rows, seatsPerRow, listener);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SeatBlock> reserve(int screeningId, int seats) {
+        return submit(() -> screening(screeningId).claim(seats));
+    }
+
+    @Override
+    public CompletableFuture<Void> release(SeatBlock block) {
+        return submit(() -> {
+            screening(block.getScreeningId()).release(block);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        loop.shutdown();
+        loop.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private int slot(int screeningId) {
+        if (screeningId < 0) {
+            throw new IllegalArgumentException("Screening ids cannot be negative: " + screeningId);
+        }
+        if (Math.floorMod(screeningId, shardCount) != shardIndex) {
+            throw new IllegalArgumentException("Screening " + screeningId + " is not owned by shard " + shardIndex);
+        }
+        return screeningId / shardCount;
+    }
+
+    private ScreeningSeatMap screening(int screeningId) {
+        int slot = slot(screeningId);
+        ScreeningSeatMap screening = slot < screenings.length ? screenings[slot] : null;
+        if (screening == null) {
+            throw new IllegalArgumentException("Unknown screening: " + screeningId);
+        }
+        return screening;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, loop);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
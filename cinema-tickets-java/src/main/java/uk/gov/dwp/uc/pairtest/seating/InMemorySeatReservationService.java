@@ -0,0 +1,101 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.time.Duration;
+
+/**
+ * Local {@link SeatReservationService} for one screening, backed by its {@link ScreeningSeatMap}.
+ * Each order gets a block of adjacent seats; orders that do not fit fail with {@link SeatsUnavailableException}.
+ * Held blocks that are not confirmed in time go back to the screening; expired holds are swept before any seats
+ * are claimed, so they never make a screening look fuller than it is.
+ */
+public class InMemorySeatReservationService implements SeatReservationService, SeatAvailability {
+
+    private final ScreeningSeatMap screening;
+    private final SeatHolds<SeatBlock> holds;
+    private final ReservedBlocks reserved = new ReservedBlocks();
+
+    public InMemorySeatReservationService(ScreeningSeatMap screening) {
+        this(screening, new SeatHolds<>(screening::release));
+    }
+
+    InMemorySeatReservationService(ScreeningSeatMap screening, SeatHolds<SeatBlock> holds) {
+        this.screening = screening;
+        this.holds = holds;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        reserved.add(accountId, reserve(accountId, totalSeatsToAllocate));
+    }
+
+    /**
+     * Gives back the account's latest block of {@code totalSeatsToRelease} seats taken by
+     * {@link #reserveSeat(long, int)} or a confirmed hold.
+     */
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        screening.release(reserved.take(screening.getScreeningId(), accountId, totalSeatsToRelease));
+    }
+
+    /**
+     * Same as {@link #reserveSeat(long, int)}, returning the block so it can be released on cancellation.
+     */
+    public SeatBlock reserve(long accountId, int totalSeatsToAllocate) {
+        holds.expireDue();
+        SeatBlock block = screening.claim(totalSeatsToAllocate);
+        if (block == null) {
+            throw new SeatsUnavailableException("No block of " + totalSeatsToAllocate
+                    + " adjacent seats left in screening " + screening.getScreeningId());
+        }
+        return block;
+    }
+
+    public void release(SeatBlock block) {
+        screening.release(block);
+    }
+
+    @Override
+    public long holdSeats(long accountId, int totalSeatsToHold, Duration ttl) {
+        SeatBlock block = reserve(accountId, totalSeatsToHold);
+        try {
+            return holds.hold(accountId, totalSeatsToHold, block, ttl);
+        } catch (RuntimeException e) {
+            screening.release(block);
+            throw e;
+        }
+    }
+
+    @Override
+    public void confirmHold(long accountId, long holdToken, int totalSeatsToAllocate) {
+        reserved.add(accountId, holds.confirm(accountId, holdToken, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseHold(long accountId, long holdToken) {
+        SeatBlock block = holds.release(accountId, holdToken);
+        if (block != null) {
+            screening.release(block);
+        }
+    }
+
+    /**
+     * Live holds, so a scheduler can sweep them with {@link SeatHolds#sweepOn}.
+     */
+    public SeatHolds<SeatBlock> getHolds() {
+        return holds;
+    }
+
+    @Override
+    public boolean canAllocate(int totalSeatsToAllocate) {
+        holds.expireDue();
+        return screening.hasContiguous(totalSeatsToAllocate);
+    }
+
+    @Override
+    public int maxSeatsPerOrder() {
+        return screening.getSeatsPerRow();
+    }
+
+}
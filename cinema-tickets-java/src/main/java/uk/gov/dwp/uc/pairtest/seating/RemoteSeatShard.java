@@ -0,0 +1,174 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Client side of a shard hosted by a {@link SeatShardServer} in another JVM on this host. Requests share one
+ * connection and are sent one at a time by a dedicated I/O thread, so callers never block on the socket.
+ * <p>
+ * Any I/O failure, timeout or unexpected reply leaves the stream out of step with the server, so the connection is
+ * closed and the next request opens a new one. The request that failed may still have been applied by the shard.
+ */
+public class RemoteSeatShard implements SeatShard, AutoCloseable {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final int port;
+    private final int timeoutMillis;
+    private final ExecutorService io;
+
+    // Used by the I/O thread only, except for close().
+    private volatile Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    public RemoteSeatShard(int port) throws IOException {
+        this(port, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout longest wait for a connection or for each read of a reply
+     */
+    public RemoteSeatShard(int port, Duration timeout) throws IOException {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Need a positive timeout.");
+        }
+        this.port = port;
+        this.timeoutMillis = (int) Math.min(Math.max(1L, timeout.toMillis()), Integer.MAX_VALUE);
+        connect(); // Fail fast if nothing is listening
+        this.io = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "remote-seat-shard-" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addScreening(int screeningId, int rows, int seatsPerRow) {
+        return exchange(() -> {
+            out.writeByte(ShardProtocol.ADD_SCREENING);
+            out.writeInt(screeningId);
+            out.writeInt(rows);
+            out.writeInt(seatsPerRow);
+            out.flush();
+            readStatus();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SeatBlock> reserve(int screeningId, int seats) {
+        return exchange(() -> {
+            out.writeByte(ShardProtocol.RESERVE);
+            out.writeInt(screeningId);
+            out.writeInt(seats);
+            out.flush();
+            if (readStatus() == ShardProtocol.NO_SEATS) {
+                return null;
+            }
+            return new SeatBlock(screeningId, in.readInt(), in.readInt(), seats);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> release(SeatBlock block) {
+        return exchange(() -> {
+            out.writeByte(ShardProtocol.RELEASE);
+            out.writeInt(block.getScreeningId());
+            out.writeInt(block.getRow());
+            out.writeInt(block.getFirstSeat());
+            out.writeInt(block.getSeats());
+            out.flush();
+            readStatus();
+            return null;
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        io.shutdown();
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket connection = new Socket();
+        try {
+            connection.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), timeoutMillis);
+            connection.setTcpNoDelay(true);
+            connection.setSoTimeout(timeoutMillis);
+            in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+        socket = connection;
+    }
+
+    private void disconnect() {
+        Socket current = socket;
+        socket = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Already broken; nothing more to do
+            }
+        }
+    }
+
+    private byte readStatus() throws IOException {
+        byte status = in.readByte();
+        if (status == ShardProtocol.ERROR) {
+            throw new IllegalStateException(in.readUTF());
+        }
+        if (status != ShardProtocol.OK && status != ShardProtocol.NO_SEATS) {
+            throw new ProtocolException("Unexpected shard status: " + status);
+        }
+        return status;
+    }
+
+    private <T> CompletableFuture<T> exchange(IoCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            io.execute(() -> {
+                try {
+                    if (socket == null) {
+                        connect();
+                    }
+                    result.complete(call.run());
+                } catch (IOException e) {
+                    disconnect(); // Part of a reply may still be unread
+                    result.completeExceptionally(new UncheckedIOException(e));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T run() throws IOException;
+    }
+}
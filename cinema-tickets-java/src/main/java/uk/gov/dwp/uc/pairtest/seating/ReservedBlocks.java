@@ -0,0 +1,77 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The blocks each account was given by {@code reserveSeat}, so {@code releaseSeat}, which only carries the
+ * account and a seat count, can find the block to give back. The latest matching block goes back first.
+ * <p>
+ * Blocks are kept per screening, with the account ids unboxed alongside them, so a screening never holds more
+ * entries than it has seats, and all of them go when the screening is finished.
+ */
+final class ReservedBlocks {
+
+    private final Map<Integer, Screening> byScreening = new ConcurrentHashMap<>();
+
+    void add(long accountId, SeatBlock block) {
+        byScreening.computeIfAbsent(block.getScreeningId(), id -> new Screening()).add(accountId, block);
+    }
+
+    /**
+     * Forgets and returns the account's latest block of {@code seats} seats in the screening.
+     *
+     * @throws IllegalStateException if the account has no such block
+     */
+    SeatBlock take(int screeningId, long accountId, int seats) {
+        Screening screening = byScreening.get(screeningId);
+        SeatBlock block = screening == null ? null : screening.take(accountId, seats);
+        if (block == null) {
+            throw new IllegalStateException("Account " + accountId + " holds no reservation of " + seats
+                    + " seats in screening " + screeningId + '.');
+        }
+        return block;
+    }
+
+    /**
+     * Forgets every block in the screening, once none of them can be given back any more.
+     */
+    void finish(int screeningId) {
+        byScreening.remove(screeningId);
+    }
+
+    /**
+     * One screening's blocks in the order they were given out. There are never more of them than the screening
+     * has seats, so a backwards scan finds the latest match without hashing the account id.
+     */
+    private static final class Screening {
+
+        private long[] accounts = new long[16];
+        private SeatBlock[] blocks = new SeatBlock[16];
+        private int size;
+
+        synchronized void add(long accountId, SeatBlock block) {
+            if (size == accounts.length) {
+                accounts = Arrays.copyOf(accounts, size * 2);
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            accounts[size] = accountId;
+            blocks[size] = block;
+            size++;
+        }
+
+        synchronized SeatBlock take(long accountId, int seats) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (accounts[i] == accountId && blocks[i].getSeats() == seats) {
+                    SeatBlock block = blocks[i];
+                    System.arraycopy(accounts, i + 1, accounts, i, size - i - 1);
+                    System.arraycopy(blocks, i + 1, blocks, i, size - i - 1);
+                    blocks[--size] = null;
+                    return block;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat occupancy of one screening. Each row is a single 64-bit word with one bit per seat, so a contiguous
+ * block is claimed or released with one compare-and-set on its row and no lock is ever taken. Each committed
+ * claim or release is reported to the map's {@link SeatCountListener}.
+ */
+public final class ScreeningSeatMap {
+
+    public static final int MAX_SEATS_PER_ROW = Long.SIZE;
+
+    private final int screeningId;
+    private final int seatsPerRow;
+    private final long rowMask;
+    private final AtomicLongArray rows;
+    private final AtomicInteger availableSeats;
+    private final SeatCountListener listener;
+
+    public ScreeningSeatMap(int screeningId, int rows, int seatsPerRow) {
+        this(screeningId, rows, seatsPerRow, SeatCountListener.NOOP);
+    }
+
+    public ScreeningSeatMap(int screeningId, int rows, int seatsPerRow, SeatCountListener listener) {
+        if (rows <= 0 || seatsPerRow <= 0 || seatsPerRow > MAX_SEATS_PER_ROW) {
+            throw new IllegalArgumentException("A screening needs at least one row of 1 to 64 seats.");
+        }
+        this.screeningId = screeningId;
+        this.seatsPerRow = seatsPerRow;
+        this.rowMask = mask(seatsPerRow);
+        this.rows = new AtomicLongArray(rows);
+        this.availableSeats = new AtomicInteger(rows * seatsPerRow);
+        this.listener = listener;
+        listener.screeningAdded(screeningId, rows * seatsPerRow);
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return rows.length() * seatsPerRow;
+    }
+
+    public int availableSeats() {
+        return availableSeats.get();
+    }
+
+    /**
+     * Whether a block of {@code seats} adjacent seats is free right now.
+     */
+    public boolean hasContiguous(int seats) {
+        if (seats <= 0 || seats > seatsPerRow || availableSeats.get() < seats) {
+            return false;
+        }
+        for (int row = 0; row < rows.length(); row++) {
+            if (firstFit(rows.get(row), seats) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Claims {@code seats} adjacent seats in the front-most row that has room.
+     *
+     * @return the claimed block, or {@code null} when no row has that many adjacent free seats
+     */
+    public SeatBlock claim(int seats) {
+        if (seats <= 0 || seats > seatsPerRow) {
+            return null;
+        }
+        for (int row = 0; row < rows.length() && availableSeats.get() >= seats; row++) {
+            long occupied = rows.get(row);
+            int first;
+            while ((first = firstFit(occupied, seats)) >= 0) {
+                long block = mask(seats) << first;
+                if (rows.compareAndSet(row, occupied, occupied | block)) {
+                    availableSeats.addAndGet(-seats);
+                    listener.seatsChanged(screeningId, -seats);
+                    return new SeatBlock(screeningId, row, first, seats);
+                }
+                occupied = rows.get(row); // Lost the race for this row; look again at what is left
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a previously claimed block, e.g. when the purchase is cancelled.
+     */
+    public void release(SeatBlock block) {
+        if (block.getScreeningId() != screeningId) {
+            throw new IllegalArgumentException("Seat block belongs to screening " + block.getScreeningId());
+        }
+        long bits = mask(block.getSeats()) << block.getFirstSeat();
+        while (true) {
+            long occupied = rows.get(block.getRow());
+            if ((occupied & bits) != bits) {
+                throw new IllegalStateException("Seat block is not held: " + block);
+            }
+            if (rows.compareAndSet(block.getRow(), occupied, occupied & ~bits)) {
+                availableSeats.addAndGet(block.getSeats());
+                listener.seatsChanged(screeningId, block.getSeats());
+                return;
+            }
+        }
+    }
+
+    private int firstFit(long occupied, int seats) {
+        // Bit i of runs survives only if seats i .. i+seats-1 are all free.
+        long free = ~occupied & rowMask;
+        long runs = free;
+        for (int k = 1; k < seats && runs != 0; k++) {
+            runs &= free >>> k;
+        }
+        return runs == 0 ? -1 : Long.numberOfTrailingZeros(runs);
+    }
+
+    private static long mask(int seats) {
+        return seats == Long.SIZE ? -1L : (1L << seats) - 1;
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Implemented by seat reservation services that can say up front whether an order would fit, so sold-out
+ * orders are turned away before any payment is taken. The answer is advisory: a concurrent reservation may
+ * still take the seats first.
+ * <p>
+ * Decorators forward to the service they wrap through {@link #of}, so the check survives wrapping.
+ */
+public interface SeatAvailability {
+
+    /**
+     * Knows nothing, so never turns an order away.
+     */
+    SeatAvailability UNKNOWN = new SeatAvailability() {
+        @Override
+        public boolean canAllocate(int totalSeatsToAllocate) {
+            return true;
+        }
+
+        @Override
+        public int maxSeatsPerOrder() {
+            return Integer.MAX_VALUE;
+        }
+    };
+
+    boolean canAllocate(int totalSeatsToAllocate);
+
+    /**
+     * Most seats one order could ever be given, however empty the screening. Bigger orders are invalid rather
+     * than sold out.
+     */
+    int maxSeatsPerOrder();
+
+    static SeatAvailability of(SeatReservationService service) {
+        return service instanceof SeatAvailability ? (SeatAvailability) service : UNKNOWN;
+    }
+
+}
@@ -0,0 +1,42 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+/**
+ * Immutable Object: a run of adjacent seats in one row, as handed out by {@link ScreeningSeatMap}.
+ */
+
+public final class SeatBlock {
+
+    private final int screeningId;
+    private final int row;
+    private final int firstSeat;
+    private final int seats;
+
+    public SeatBlock(int screeningId, int row, int firstSeat, int seats) {
+        this.screeningId = screeningId;
+        this.row = row;
+        this.firstSeat = firstSeat;
+        this.seats = seats;
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getFirstSeat() {
+        return firstSeat;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatBlock{screeningId=" + screeningId + ", row=" + row
+                + ", seats=" + firstSeat + ".." + (firstSeat + seats - 1) + '}';
+    }
+}
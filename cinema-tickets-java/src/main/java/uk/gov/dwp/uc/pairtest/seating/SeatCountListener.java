@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+/**
+ * Told about every change to a screening's free seat count, on the thread that made it. Called on the seat
+ * allocation path, so implementations must be quick and must not block.
+ */
+public interface SeatCountListener {
+
+    SeatCountListener NOOP = new SeatCountListener() {
+        @Override
+        public void screeningAdded(int screeningId, int seats) {
+        }
+
+        @Override
+        public void seatsChanged(int screeningId, int change) {
+        }
+    };
+
+    void screeningAdded(int screeningId, int seats);
+
+    /**
+     * @param change negative when seats were claimed, positive when they were released
+     */
+    void seatsChanged(int screeningId, int change);
+
+}
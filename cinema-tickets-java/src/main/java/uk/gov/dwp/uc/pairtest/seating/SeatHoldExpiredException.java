@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+public class SeatHoldExpiredException extends RuntimeException {
+
+    public SeatHoldExpiredException(String message) {
+        super(message);
+    }
+}
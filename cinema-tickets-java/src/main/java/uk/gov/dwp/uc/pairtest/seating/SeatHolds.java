@@ -0,0 +1,198 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import uk.gov.dwp.uc.pairtest.util.TimerWheel;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Seats set aside for an account until it pays or the hold runs out. Expiry is driven by one {@link TimerWheel}
+ * rather than a scheduled task per hold, and holds are kept in a slot array addressed by their token, so an
+ * on-sale with hundreds of thousands of live holds costs one small object per hold, reused once it is gone.
+ * <p>
+ * A token carries the slot number in its low 32 bits and the slot's generation above them, so a token from a
+ * hold that has expired never matches the slot's next hold.
+ *
+ * @param <B> whatever the seat service needs to give the seats back, handed to {@code onExpired}
+ */
+public final class SeatHolds<B> {
+
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+    private static final class Hold<B> extends TimerWheel.Timer {
+
+        private final int slot;
+        private int generation = 1;
+        private long accountId;
+        private int seats;
+        private B seatsHeld;
+
+        private Hold(int slot) {
+            this.slot = slot;
+        }
+
+        private long token() {
+            return (long) generation << 32 | slot;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Consumer<? super B> onExpired;
+    private final LongSupplier clock;
+    private final long tickNanos;
+    private final TimerWheel<Hold<B>> wheel;
+
+    private Hold<B>[] holds;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotsUsed;
+    // Read without the lock, so callers on the hot path skip sweeping until a tick is actually due.
+    private volatile long nextSweepAt;
+
+    public SeatHolds(Consumer<? super B> onExpired) {
+        this(onExpired, DEFAULT_TICK, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    SeatHolds(Consumer<? super B> onExpired, Duration tick, LongSupplier clock) {
+        this.onExpired = onExpired;
+        this.clock = clock;
+        this.tickNanos = tick.toNanos();
+        this.wheel = new TimerWheel<>(tickNanos, clock.getAsLong());
+        this.holds = new Hold[64];
+        this.freeSlots = new int[64];
+        this.nextSweepAt = wheel.nextTickNanos();
+    }
+
+    /**
+     * Records a hold on seats the caller has already set aside, and returns its token.
+     */
+    public long hold(long accountId, int seats, B seatsHeld, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("A hold needs a positive time to live.");
+        }
+        lock.lock();
+        try {
+            Hold<B> hold = vacantHold();
+            hold.accountId = accountId;
+            hold.seats = seats;
+            hold.seatsHeld = seatsHeld;
+            wheel.schedule(hold, clock.getAsLong() + ttl.toNanos());
+            return hold.token();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the hold and returns its seats to the caller to keep.
+     *
+     * @throws SeatHoldExpiredException if the hold has expired or been released, or is for a different account
+     *                                  or number of seats
+     */
+    public B confirm(long accountId, long token, int seats) {
+        lock.lock();
+        try {
+            expireDue(clock.getAsLong());
+            Hold<B> hold = live(token);
+            if (hold == null || hold.accountId != accountId || hold.seats != seats) {
+                throw new SeatHoldExpiredException("No live hold of " + seats + " seats for this account: " + token);
+            }
+            return remove(hold);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the hold early and returns its seats so the caller can give them back, or {@code null} if there is no
+     * such live hold for the account.
+     */
+    public B release(long accountId, long token) {
+        lock.lock();
+        try {
+            Hold<B> hold = live(token);
+            return hold == null || hold.accountId != accountId ? null : remove(hold);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expires every hold that is due, passing its seats to {@code onExpired}. Cheap enough to call before every
+     * seat allocation: until the next tick is due it does not even take the lock.
+     */
+    public int expireDue() {
+        long now = clock.getAsLong();
+        if (now < nextSweepAt) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            return expireDue(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sweeps once a tick on the given scheduler, so seats come back promptly even when nobody is allocating.
+     */
+    public ScheduledFuture<?> sweepOn(ScheduledExecutorService scheduler) {
+        return scheduler.scheduleAtFixedRate(this::expireDue, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int expireDue(long now) {
+        int expired = wheel.expire(now, hold -> onExpired.accept(remove(hold)));
+        nextSweepAt = wheel.nextTickNanos();
+        return expired;
+    }
+
+    private Hold<B> live(long token) {
+        int slot = (int) token;
+        if (slot < 0 || slot >= slotsUsed) {
+            return null;
+        }
+        Hold<B> hold = holds[slot];
+        return hold.token() == token && hold.isScheduled() ? hold : null;
+    }
+
+    private B remove(Hold<B> hold) {
+        B seatsHeld = hold.seatsHeld;
+        wheel.cancel(hold);
+        hold.seatsHeld = null;
+        hold.generation = hold.generation + 1 & Integer.MAX_VALUE; // Outstanding tokens stop matching
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = hold.slot;
+        return seatsHeld;
+    }
+
+    private Hold<B> vacantHold() {
+        if (freeCount > 0) {
+            return holds[freeSlots[--freeCount]];
+        }
+        if (slotsUsed == holds.length) {
+            holds = Arrays.copyOf(holds, slotsUsed * 2);
+        }
+        Hold<B> hold = new Hold<>(slotsUsed);
+        holds[slotsUsed++] = hold;
+        return hold;
+    }
+}
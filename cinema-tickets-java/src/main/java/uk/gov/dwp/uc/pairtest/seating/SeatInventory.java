@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.Arrays;
+
+/**
+ * All screenings known to this node, addressed by the dense id handed out by {@link #addScreening}.
+ * Lookups read a copy-on-write array, so they never lock and never box.
+ */
+public final class SeatInventory {
+
+    private final SeatCountListener listener;
+    private volatile ScreeningSeatMap[] screenings = new ScreeningSeatMap[0];
+
+    public SeatInventory() {
+        this(SeatCountListener.NOOP);
+    }
+
+    /**
+     * @param listener told about every screening's seat count, e.g. an {@link AvailabilityBoard}
+     */
+    public SeatInventory(SeatCountListener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized int addScreening(int rows, int seatsPerRow) {
+        ScreeningSeatMap[] current = screenings;
+        ScreeningSeatMap[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = new ScreeningSeatMap(current.length, rows, seatsPerRow, listener);
+        screenings = next;
+        return current.length;
+    }
+
+    public ScreeningSeatMap screening(int screeningId) {
+        ScreeningSeatMap[] current = screenings;
+        if (screeningId < 0 || screeningId >= current.length) {
+            throw new IllegalArgumentException("Unknown screening: " + screeningId);
+        }
+        return current[screeningId];
+    }
+
+    public int screeningCount() {
+        return screenings.length;
+    }
+}
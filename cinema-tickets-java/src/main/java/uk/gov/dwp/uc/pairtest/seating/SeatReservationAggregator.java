@@ -0,0 +1,145 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import thirdparty.seatbooking.ReservationOutcome;
+import thirdparty.seatbooking.SeatRequest;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+import uk.gov.dwp.uc.pairtest.util.MicroBatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Gathers concurrent {@code reserveSeat} calls into {@link SeatReservationService#reserveSeats} batches.
+ * Every call stays its own request in the batch, even for the same account, so each order gets its own block,
+ * fails on its own, and can be released on its own. Two identical calls are two orders, never one: the
+ * interface carries no idempotency key that could tell a resubmission apart.
+ */
+public class SeatReservationAggregator implements SeatReservationService, SeatAvailability, AutoCloseable {
+
+    private final SeatReservationService backend;
+    private final SeatAvailability availability;
+    private final MicroBatcher<PendingReservation> batcher;
+
+    public SeatReservationAggregator(SeatReservationService backend, int maxBatchSize, Duration maxDelay) {
+        this(backend, maxBatchSize, maxDelay, 1);
+    }
+
+    /**
+     * Same as {@link #SeatReservationAggregator(SeatReservationService, int, Duration)}, with up to
+     * {@code maxBatchesInFlight} batches at the backend at once.
+     */
+    public SeatReservationAggregator(SeatReservationService backend, int maxBatchSize, Duration maxDelay,
+                                     int maxBatchesInFlight) {
+        this.backend = backend;
+        this.availability = SeatAvailability.of(backend);
+        this.batcher = new MicroBatcher<>("seat-reservation-aggregator", maxBatchSize, maxDelay, maxBatchesInFlight,
+                this::flush,
+                (reservation, failure) -> reservation.result.completeExceptionally(failure));
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        Futures.await(reserveSeatAsync(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSeatAsync(long accountId, int totalSeatsToAllocate) {
+        PendingReservation reservation = new PendingReservation(accountId, totalSeatsToAllocate);
+        try {
+            batcher.submit(reservation);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return reservation.result;
+    }
+
+    @Override
+    public List<ReservationOutcome> reserveSeats(List<SeatRequest> requests) {
+        return backend.reserveSeats(requests); // Already a batch
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        backend.releaseSeat(accountId, totalSeatsToRelease); // Rare, so never batched
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseSeatAsync(long accountId, int totalSeatsToRelease) {
+        return backend.releaseSeatAsync(accountId, totalSeatsToRelease);
+    }
+
+    @Override
+    public long holdSeats(long accountId, int totalSeatsToHold, Duration ttl) {
+        return backend.holdSeats(accountId, totalSeatsToHold, ttl); // Each hold needs its own token, so never merged
+    }
+
+    @Override
+    public void confirmHold(long accountId, long holdToken, int totalSeatsToAllocate) {
+        backend.confirmHold(accountId, holdToken, totalSeatsToAllocate);
+    }
+
+    @Override
+    public void releaseHold(long accountId, long holdToken) {
+        backend.releaseHold(accountId, holdToken);
+    }
+
+    @Override
+    public boolean canAllocate(int totalSeatsToAllocate) {
+        return availability.canAllocate(totalSeatsToAllocate);
+    }
+
+    @Override
+    public int maxSeatsPerOrder() {
+        return availability.maxSeatsPerOrder();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        batcher.close();
+    }
+
+    private void flush(List<PendingReservation> batch) {
+        List<SeatRequest> requests = new ArrayList<>(batch.size());
+        for (PendingReservation reservation : batch) {
+            requests.add(new SeatRequest(reservation.accountId, reservation.totalSeatsToAllocate));
+        }
+
+        List<ReservationOutcome> outcomes;
+        try {
+            outcomes = backend.reserveSeats(requests);
+        } catch (RuntimeException e) {
+            for (PendingReservation reservation : batch) {
+                reservation.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<Void> result = batch.get(i).result;
+            RuntimeException failure = i < outcomes.size()
+                    ? outcomes.get(i).getFailure()
+                    : new IllegalStateException("Seat reservation backend returned no outcome.");
+            if (failure == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static final class PendingReservation {
+
+        private final long accountId;
+        private final int totalSeatsToAllocate;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private PendingReservation(long accountId, int totalSeatsToAllocate) {
+            this.accountId = accountId;
+            this.totalSeatsToAllocate = totalSeatsToAllocate;
+        }
+    }
+}
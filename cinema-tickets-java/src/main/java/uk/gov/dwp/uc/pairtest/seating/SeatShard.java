@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One partition of the screenings served by {@link ShardedSeatReservationService}. A shard owns its
+ * screenings outright: every read and write for them goes through the shard.
+ */
+public interface SeatShard {
+
+    CompletableFuture<Void> addScreening(int screeningId, int rows, int seatsPerRow);
+
+    /**
+     * Completes with the claimed block, or with {@code null} when the screening has no room for it.
+     */
+    CompletableFuture<SeatBlock> reserve(int screeningId, int seats);
+
+    CompletableFuture<Void> release(SeatBlock block);
+
+}
@@ -0,0 +1,112 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Serves a local {@link SeatShard} to {@link RemoteSeatShard} clients in other JVMs on the same host.
+ */
+public class SeatShardServer implements AutoCloseable {
+
+    private final SeatShard shard;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+
+    /**
+     * @param port the loopback port to listen on, or 0 for any free port
+     */
+    public SeatShardServer(SeatShard shard, int port) throws IOException {
+        this.shard = shard;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::acceptConnections, "seat-shard-server-" + getPort());
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread connection = new Thread(() -> serve(socket), acceptor.getName() + "-connection");
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                // Closed while waiting for a connection
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                byte operation = in.readByte();
+                try {
+                    handle(operation, in, out);
+                } catch (RuntimeException e) {
+                    out.writeByte(ShardProtocol.ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // Client hung up
+        } catch (IOException e) {
+            // Connection dropped; the client sees the failure on its side
+        }
+    }
+
+    private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+            case ShardProtocol.ADD_SCREENING: {
+                int screeningId = in.readInt();
+                int rows = in.readInt();
+                int seatsPerRow = in.readInt();
+                Futures.await(shard.addScreening(screeningId, rows, seatsPerRow));
+                out.writeByte(ShardProtocol.OK);
+                break;
+            }
+            case ShardProtocol.RESERVE: {
+                int screeningId = in.readInt();
+                int seats = in.readInt();
+                SeatBlock block = Futures.await(shard.reserve(screeningId, seats));
+                if (block == null) {
+                    out.writeByte(ShardProtocol.NO_SEATS);
+                } else {
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeInt(block.getRow());
+                    out.writeInt(block.getFirstSeat());
+                }
+                break;
+            }
+            case ShardProtocol.RELEASE: {
+                SeatBlock block = new SeatBlock(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                Futures.await(shard.release(block));
+                out.writeByte(ShardProtocol.OK);
+                break;
+            }
+            default:
+                throw new IOException("Unknown shard operation: " + operation);
+        }
+    }
+}
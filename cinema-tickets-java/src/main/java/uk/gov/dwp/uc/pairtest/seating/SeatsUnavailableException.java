@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+public class SeatsUnavailableException extends RuntimeException {
+
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
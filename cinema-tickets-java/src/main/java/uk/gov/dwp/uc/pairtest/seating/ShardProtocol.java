@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+/**
+ * Wire format between {@link RemoteSeatShard} and {@link SeatShardServer}: a one-byte operation followed by
+ * its int arguments, answered by a one-byte status and, for a granted reservation, the row and first seat.
+ */
+final class ShardProtocol {
+
+    static final byte ADD_SCREENING = 1;  // screeningId, rows, seatsPerRow
+    static final byte RESERVE = 2;        // screeningId, seats
+    static final byte RELEASE = 3;        // screeningId, row, firstSeat, seats
+
+    static final byte OK = 0;
+    static final byte NO_SEATS = 1;
+    static final byte ERROR = 2;          // followed by a UTF message
+
+    private ShardProtocol() {
+    }
+}
@@ -0,0 +1,142 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Seat reservation backend partitioned across shards by screening id. Shards may be
+ * {@link EventLoopSeatShard}s in this JVM or {@link RemoteSeatShard}s served by other JVMs; routing is the
+ * same either way. {@code reserveSeat} only carries an account, so the screening being booked is looked
+ * up with {@code screeningOfAccount}.
+ * <p>
+ * Free seats live on the shards, so it cannot say up front whether an order fits, only that no order bigger
+ * than a row ever can. Held blocks are tracked here and go back to their shard when the hold expires; expired
+ * holds are swept before any seats are claimed.
+ */
+public class ShardedSeatReservationService implements SeatReservationService, SeatAvailability {
+
+    private final SeatShard[] shards;
+    private final LongToIntFunction screeningOfAccount;
+    private final ReservedBlocks reserved = new ReservedBlocks();
+    private final SeatHolds<SeatBlock> holds = new SeatHolds<>(this::release);
+
+    public ShardedSeatReservationService(SeatShard[] shards, LongToIntFunction screeningOfAccount) {
+        if (shards.length == 0) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        this.shards = shards.clone();
+        this.screeningOfAccount = screeningOfAccount;
+    }
+
+    public void addScreening(int screeningId, int rows, int seatsPerRow) {
+        Futures.await(shardFor(screeningId).addScreening(screeningId, rows, seatsPerRow));
+    }
+
+    /**
+     * Forgets the blocks reserved for a screening that has been shown, so they can no longer be released.
+     */
+    public void finishScreening(int screeningId) {
+        reserved.finish(screeningId);
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        Futures.await(reserveSeatAsync(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSeatAsync(long accountId, int totalSeatsToAllocate) {
+        int screeningId = screeningOfAccount.applyAsInt(accountId);
+        return reserve(screeningId, totalSeatsToAllocate).thenAccept(block -> reserved.add(accountId, block));
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        Futures.await(releaseSeatAsync(accountId, totalSeatsToRelease));
+    }
+
+    /**
+     * Gives back the account's latest block of {@code totalSeatsToRelease} seats taken by
+     * {@link #reserveSeatAsync(long, int)}. The blocks are remembered here, so it must be the same instance.
+     */
+    @Override
+    public CompletableFuture<Void> releaseSeatAsync(long accountId, int totalSeatsToRelease) {
+        SeatBlock block;
+        try {
+            block = reserved.take(screeningOfAccount.applyAsInt(accountId), accountId, totalSeatsToRelease);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return release(block);
+    }
+
+    /**
+     * Claims a block in the given screening; fails with {@link SeatsUnavailableException} if it is full.
+     */
+    public CompletableFuture<SeatBlock> reserve(int screeningId, int seats) {
+        holds.expireDue();
+        return shardFor(screeningId).reserve(screeningId, seats).thenApply(block -> {
+            if (block == null) {
+                throw new SeatsUnavailableException("No block of " + seats
+                        + " adjacent seats left in screening " + screeningId);
+            }
+            return block;
+        });
+    }
+
+    public CompletableFuture<Void> release(SeatBlock block) {
+        return shardFor(block.getScreeningId()).release(block);
+    }
+
+    @Override
+    public long holdSeats(long accountId, int totalSeatsToHold, Duration ttl) {
+        SeatBlock block = Futures.await(reserve(screeningOfAccount.applyAsInt(accountId), totalSeatsToHold));
+        try {
+            return holds.hold(accountId, totalSeatsToHold, block, ttl);
+        } catch (RuntimeException e) {
+            release(block);
+            throw e;
+        }
+    }
+
+    /**
+     * Turns the hold into a reservation, which {@link #releaseSeat(long, int)} can then give back.
+     */
+    @Override
+    public void confirmHold(long accountId, long holdToken, int totalSeatsToAllocate) {
+        reserved.add(accountId, holds.confirm(accountId, holdToken, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseHold(long accountId, long holdToken) {
+        SeatBlock block = holds.release(accountId, holdToken);
+        if (block != null) {
+            Futures.await(release(block));
+        }
+    }
+
+    /**
+     * Live holds, so a scheduler can sweep them with {@link SeatHolds#sweepOn}.
+     */
+    public SeatHolds<SeatBlock> getHolds() {
+        return holds;
+    }
+
+    @Override
+    public boolean canAllocate(int totalSeatsToAllocate) {
+        return totalSeatsToAllocate <= maxSeatsPerOrder();
+    }
+
+    @Override
+    public int maxSeatsPerOrder() {
+        return ScreeningSeatMap.MAX_SEATS_PER_ROW;
+    }
+
+    private SeatShard shardFor(int screeningId) {
+        return shards[Math.floorMod(screeningId, shards.length)];
+    }
+}
@@ -0,0 +1,147 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache whose entries expire a fixed time after they were written. Keys are spread over independently
+ * locked stripes, so threads working on different keys rarely meet. Within a stripe the oldest entries are
+ * evicted first, once they have expired or the stripe is full. Values the {@code pinned} test accepts are
+ * never expired or evicted, so a stripe may run over its share while they last.
+ */
+public final class ExpiringCache<K, V> {
+
+    private final Stripe<K, V>[] stripes;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Predicate<? super V> pinned;
+
+    public ExpiringCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, value -> false);
+    }
+
+    public ExpiringCache(int maxEntries, Duration ttl, Predicate<? super V> pinned) {
+        this(maxEntries, ttl, Runtime.getRuntime().availableProcessors() * 4, System::nanoTime, pinned);
+    }
+
+    ExpiringCache(int maxEntries, Duration ttl, int stripeCount, LongSupplier clock) {
+        this(maxEntries, ttl, stripeCount, clock, value -> false);
+    }
+
+    @SuppressWarnings("unchecked")
+    ExpiringCache(int maxEntries, Duration ttl, int stripeCount, LongSupplier clock, Predicate<? super V> pinned) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero.");
+        }
+        // Round up to a power of two so a stripe is picked with a mask.
+        int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, maxEntries)) * 2 - 1);
+        this.stripes = new Stripe[count];
+        int perStripe = Math.max(1, maxEntries / count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Returns the live value for {@code key}, or stores and returns the one made by {@code loader}. The loader
+     * runs under the stripe's lock, so it must be quick: start work there, don't wait for it.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Stripe<K, V> stripe = stripeFor(key);
+        long now = clock.getAsLong();
+        synchronized (stripe) {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry != null && isLive(entry, now)) {
+                return entry.value;
+            }
+            V value = loader.apply(key);
+            stripe.entries.remove(key); // Re-insert at the young end
+            stripe.entries.put(key, new Entry<>(value, now));
+            evict(stripe, now);
+            return value;
+        }
+    }
+
+    public V getIfPresent(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        long now = clock.getAsLong();
+        synchronized (stripe) {
+            Entry<V> entry = stripe.entries.get(key);
+            return entry != null && isLive(entry, now) ? entry.value : null;
+        }
+    }
+
+    /**
+     * Removes the entry only if it still holds {@code value}.
+     */
+    public void remove(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry != null && entry.value == value) {
+                stripe.entries.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private void evict(Stripe<K, V> stripe, long now) {
+        Iterator<Entry<V>> oldestFirst = stripe.entries.values().iterator();
+        while (oldestFirst.hasNext()) {
+            Entry<V> oldest = oldestFirst.next();
+            if (stripe.entries.size() <= stripe.capacity && now - oldest.writtenAt < ttlNanos) {
+                return;
+            }
+            if (!pinned.test(oldest.value)) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    private boolean isLive(Entry<V> entry, long now) {
+        return now - entry.writtenAt < ttlNanos || pinned.test(entry.value);
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe<K, V> {
+
+        private final int capacity;
+        private final Map<K, Entry<V>> entries = new LinkedHashMap<>();
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long writtenAt;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
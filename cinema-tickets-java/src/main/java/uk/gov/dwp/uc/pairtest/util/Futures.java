@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bridges the asynchronous pipeline back to the blocking {@code TicketService} and third-party interfaces.
+ */
+public final class Futures {
+
+    /**
+     * How long {@link #await(CompletableFuture)} waits. Far beyond any dependency timeout, so it only fires when
+     * something has lost the future and a blocked caller would otherwise wait forever.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private Futures() {
+    }
+
+    /**
+     * Waits up to {@link #DEFAULT_TIMEOUT} for the future and rethrows its failure as-is, so callers of a
+     * blocking API see the same {@code InvalidPurchaseException} or gateway exception the asynchronous path
+     * produced.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        return await(future, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Same as {@link #await(CompletableFuture)}, giving up after {@code timeout}. The operation itself is not
+     * cancelled and may still complete later, so giving up throws {@link OutcomeUnknownException} rather than
+     * reporting a failure.
+     */
+    public static <T> T await(CompletableFuture<T> future, Duration timeout) {
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            throw new OutcomeUnknownException("Timed out after " + timeout
+                    + " waiting for the operation to complete; it may still succeed.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the operation to complete.", e);
+        }
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper that dependent stages add around a failure.
+     */
+    public static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return new CompletionException(failure);
+    }
+}
@@ -0,0 +1,128 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Collects items submitted from many threads into batches and hands each batch to one of its flusher threads.
+ * A batch is flushed when it reaches {@code maxBatchSize} or when {@code maxDelay} has passed since its
+ * first item arrived, whichever comes first. Each flusher collects and flushes its own batch, so up to
+ * {@code flushers} batches are in flight at once and a slow flush does not hold up the items queued behind it. The flush callback is responsible for completing every item it
+ * is given; if it throws, every item of that batch is passed to {@code fail} with the exception, so it must
+ * tolerate items the flush had already completed.
+ */
+public final class MicroBatcher<T> implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final BlockingQueue<T> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<T>> flush;
+    private final BiConsumer<? super T, ? super Throwable> fail;
+    private final String name;
+    private final Thread[] flushers;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, Consumer<List<T>> flush,
+                        BiConsumer<? super T, ? super Throwable> fail) {
+        this(name, maxBatchSize, maxDelay, 1, flush, fail);
+    }
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, int flushers, Consumer<List<T>> flush,
+                        BiConsumer<? super T, ? super Throwable> fail) {
+        if (maxBatchSize <= 0 || flushers <= 0) {
+            throw new IllegalArgumentException("maxBatchSize and flushers must be greater than zero.");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.flush = flush;
+        this.fail = fail;
+        this.name = name;
+        this.flushers = new Thread[flushers];
+        for (int i = 0; i < flushers; i++) {
+            this.flushers[i] = new Thread(this::run, flushers == 1 ? name : name + "-" + i);
+            this.flushers[i].setDaemon(true);
+            this.flushers[i].start();
+        }
+    }
+
+    public void submit(T item) {
+        if (!running) {
+            throw rejected();
+        }
+        queue.add(item);
+        // close() may have drained the queue for the last time between the check and the add. If the item is
+        // still there nobody will flush it, so take it back; if it is gone, it was flushed.
+        if (!running && queue.remove(item)) {
+            throw rejected();
+        }
+    }
+
+    /**
+     * Stops accepting items and flushes whatever is still queued before returning.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.join();
+        }
+        // Items that raced with close() are flushed on the closing thread.
+        List<T> leftovers = new ArrayList<>();
+        while (queue.drainTo(leftovers, maxBatchSize) > 0) {
+            flushOrFail(leftovers);
+            leftovers = new ArrayList<>();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                T first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    flushOrFail(collect(first));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushOrFail(List<T> batch) {
+        try {
+            flush.accept(batch);
+        } catch (Throwable e) {
+            // Keep the flusher alive, and make sure no caller waits on an item that will never be completed.
+            for (T item : batch) {
+                fail.accept(item, e);
+            }
+        }
+    }
+
+    private RejectedExecutionException rejected() {
+        return new RejectedExecutionException(name + " has been closed.");
+    }
+
+    private List<T> collect(T first) throws InterruptedException {
+        List<T> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            T next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+/**
+ * A blocking caller stopped waiting for an operation that is still running, so it may yet succeed: a purchase
+ * that ends this way may have been charged, and must be reconciled rather than reported as failed.
+ */
+public class OutcomeUnknownException extends IllegalStateException {
+
+    public OutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,163 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel: four wheels of 64 slots, each slot of a wheel spanning a whole turn of the wheel below.
+ * A timer goes into the coarsest wheel it fits and moves down a level each time that wheel turns, so scheduling
+ * and cancelling are O(1) and each timer is moved at most three times however far off it is.
+ * <p>
+ * Timers are intrusive: callers extend {@link Timer}, so a scheduled timer costs no allocation beyond the
+ * caller's own object. Not thread-safe; the owner must serialize calls.
+ */
+public final class TimerWheel<T extends TimerWheel.Timer> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Timers further off than this wait in the top wheel and are placed again each time it turns.
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * Something that can be scheduled on a {@link TimerWheel}. A timer is on at most one wheel at a time.
+     */
+    public static class Timer {
+
+        private Timer prev;
+        private Timer next;
+        private long deadlineTick;
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+    }
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final long tickNanos;
+    private final long origin;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickNanos resolution: timers fire up to one tick after their deadline, never before it
+     * @param nowNanos  the current time on the clock later deadlines are given in
+     */
+    public TimerWheel(long tickNanos, long nowNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be greater than zero.");
+        }
+        this.tickNanos = tickNanos;
+        this.origin = nowNanos;
+        for (Timer[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer head = new Timer();
+                head.prev = head;
+                head.next = head;
+                level[i] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedules the timer to fire at {@code deadlineNanos}, moving it if it was already scheduled.
+     */
+    public void schedule(T timer, long deadlineNanos) {
+        cancel(timer);
+        long sinceOrigin = Math.max(0L, deadlineNanos - origin);
+        long tick = sinceOrigin / tickNanos + (sinceOrigin % tickNanos == 0 ? 0 : 1);
+        Timer node = timer;
+        node.deadlineTick = Math.max(tick, currentTick + 1); // The current tick has already fired
+        place(node);
+        size++;
+    }
+
+    /**
+     * Returns {@code false} if the timer was not scheduled.
+     */
+    public boolean cancel(T timer) {
+        if (!timer.isScheduled()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Fires every timer due by {@code nowNanos}, in deadline order to the tick. A timer is unscheduled before it
+     * is handed to {@code onExpired}, which may schedule it again. Returns how many fired.
+     */
+    @SuppressWarnings("unchecked")
+    public int expire(long nowNanos, Consumer<? super T> onExpired) {
+        long targetTick = Math.max(0L, nowNanos - origin) / tickNanos;
+        int expired = 0;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick; // Nothing to fire or move on the way
+                break;
+            }
+            currentTick++;
+            cascade();
+            Timer head = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timer timer = head.next;
+                unlink(timer);
+                size--;
+                expired++;
+                onExpired.accept((T) timer);
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Time at which the next tick fires, on the clock passed to the constructor.
+     */
+    public long nextTickNanos() {
+        return origin + (currentTick + 1) * tickNanos;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return; // The wheel below has not completed a turn
+            }
+            Timer head = slots[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            Timer timer = head.next;
+            head.prev = head;
+            head.next = head;
+            while (timer != head) {
+                Timer next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void place(Timer timer) {
+        long delay = Math.min(timer.deadlineTick - currentTick, MAX_DELAY_TICKS);
+        long tick = currentTick + delay;
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer head = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
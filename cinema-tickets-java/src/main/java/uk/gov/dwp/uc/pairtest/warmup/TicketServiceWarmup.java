@@ -0,0 +1,155 @@
+package uk.gov.dwp.uc.pairtest.warmup;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.Order;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.wire.OrderCodec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup path for a new ticket node: run it before the node takes traffic, so the first customers of an on-sale
+ * do not pay for class loading and JIT compilation.
+ * <p>
+ * The price lookup is made once, which loads the time-zone rules it needs, and the shared request and rejection
+ * tables are initialised. Then every valid order shape and every rejection is sent through each purchase entry
+ * point of a throwaway {@link TicketServiceImpl}, which shares the node's {@link PricingEngine} but whose payment
+ * and seat services do nothing. Compiled code is shared by every instance of a class, so validation and pricing
+ * are already compiled when the node's own service starts. Its calls into the real payment and seat services, and
+ * any decorators around them, were only profiled against the stand-ins here, so those are compiled again once
+ * real traffic reaches them. The warm-up shortens the cold start; it does not remove it.
+ * <p>
+ * {@link #main} runs the same path and exits; the {@code appcds} build profile uses it as the training run for a
+ * class-data-sharing archive.
+ */
+public final class TicketServiceWarmup {
+
+    /** Comfortably past the invocation counts at which HotSpot compiles the purchase path with C2. */
+    public static final int DEFAULT_ROUNDS = 20_000;
+
+    // One round in this many also sends the rejections, so the valid path dominates the profile as in production.
+    private static final int REJECTION_EVERY = 8;
+
+    private TicketServiceWarmup() {
+    }
+
+    public static WarmupSummary warmUp(PricingEngine pricing) {
+        return warmUp(pricing, DEFAULT_ROUNDS);
+    }
+
+    public static WarmupSummary warmUp(PricingEngine pricing, int rounds) {
+        return warmUp(new TicketServiceImpl(new NoPayment(), new NoSeats(), pricing, PurchaseMetrics.NOOP),
+                pricing, rounds);
+    }
+
+    static WarmupSummary warmUp(TicketServiceImpl service, PricingEngine pricing, int rounds) {
+        long startedAt = System.nanoTime();
+        pricing.currentPrices();
+        InvalidPurchaseReason.values();
+        TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 1);
+
+        List<TicketTypeRequest[]> valid = validOrders();
+        TicketTypeRequest[][] rejected = rejectedOrders();
+        ByteBuffer encoded = ByteBuffer.allocate(OrderCodec.ENCODED_LENGTH);
+
+        long purchases = 0;
+        long rejections = 0;
+        for (int round = 0; round < rounds; round++) {
+            TicketTypeRequest[] order = valid.get(round % valid.size());
+            long accountId = 1 + round;
+            long packed = Order.of(order);
+
+            service.purchaseTickets(accountId, order);
+            service.purchaseOrder(accountId, packed);
+            encoded.clear();
+            OrderCodec.encode(encoded, 0, accountId, Order.adults(packed), Order.children(packed),
+                    Order.infants(packed));
+            service.purchaseTickets(encoded);
+            service.purchaseTicketsAsync(accountId, order).join();
+            purchases += 4;
+
+            if (round % REJECTION_EVERY == 0) {
+                for (TicketTypeRequest[] invalid : rejected) {
+                    rejections += reject(service, accountId, invalid);
+                }
+                rejections += reject(service, 0L, order);
+                purchases += rejected.length + 1;
+            }
+        }
+        return new WarmupSummary(purchases, rejections, System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Warms up with standard prices and exits: the training run for a class-data-sharing archive.
+     */
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        System.out.println(warmUp(PricingEngine.standard(), rounds));
+    }
+
+    private static int reject(TicketServiceImpl service, long accountId, TicketTypeRequest[] order) {
+        try {
+            service.purchaseTickets(accountId, order);
+        } catch (InvalidPurchaseException e) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static List<TicketTypeRequest[]> validOrders() {
+        List<TicketTypeRequest[]> orders = new ArrayList<>();
+        for (int adults = 1; adults <= 25; adults++) {
+            for (int children = 0; adults + children <= 25; children += 3) {
+                int infants = Math.min(adults, 25 - adults - children);
+                orders.add(new TicketTypeRequest[] {
+                        TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, adults),
+                        TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, children),
+                        TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, infants)
+                });
+            }
+        }
+        return orders;
+    }
+
+    private static TicketTypeRequest[][] rejectedOrders() {
+        return new TicketTypeRequest[][] {
+                {TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 0)},
+                {TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 2),
+                        TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, 1)},
+                {TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 20),
+                        TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 6)},
+                {new TicketTypeRequest(TicketTypeRequest.Type.ADULT, -1)},
+                {null}
+        };
+    }
+
+    private static final class NoPayment implements TicketPaymentService {
+
+        @Override
+        public void makePayment(long accountId, int totalAmountToPay) {
+        }
+
+        @Override
+        public void refundPayment(long accountId, int totalAmountToRefund) {
+        }
+    }
+
+    private static final class NoSeats implements SeatReservationService {
+
+        @Override
+        public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        }
+
+        @Override
+        public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.dwp.uc.pairtest.warmup;
+
+/**
+ * Immutable Object: what a {@link TicketServiceWarmup} run did.
+ */
+
+public final class WarmupSummary {
+
+    private final long purchases;
+    private final long rejections;
+    private final long elapsedNanos;
+
+    WarmupSummary(long purchases, long rejections, long elapsedNanos) {
+        this.purchases = purchases;
+        this.rejections = rejections;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Synthetic purchases that went all the way through, including the rejected ones.
+     */
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmupSummary{purchases=" + purchases + ", rejections=" + rejections
+                + ", elapsedMillis=" + elapsedNanos / 1_000_000 + '}';
+    }
+}
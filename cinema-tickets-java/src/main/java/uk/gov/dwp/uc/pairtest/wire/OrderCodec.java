@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed 11-byte encoding of one order, read and written in place against a {@link ByteBuffer}:
+ * <pre>
+ *   offset 0  accountId   8 bytes, big-endian
+ *   offset 8  adults      1 byte, unsigned
+ *   offset 9  children    1 byte, unsigned
+ *   offset 10 infants     1 byte, unsigned
+ * </pre>
+ * Counts above 255 cannot be encoded; no valid order gets near that.
+ */
+public final class OrderCodec {
+
+    public static final int ENCODED_LENGTH = 11;
+    public static final int MAX_COUNT = 0xFF;
+
+    private static final int ACCOUNT_OFFSET = 0;
+    private static final int ADULTS_OFFSET = 8;
+    private static final int CHILDREN_OFFSET = 9;
+    private static final int INFANTS_OFFSET = 10;
+
+    private OrderCodec() {
+    }
+
+    /**
+     * Writes an order at {@code index} without touching the buffer's position.
+     */
+    public static void encode(ByteBuffer buffer, int index, long accountId, int adults, int children, int infants) {
+        buffer.putLong(index + ACCOUNT_OFFSET, accountId);
+        buffer.put(index + ADULTS_OFFSET, count(adults));
+        buffer.put(index + CHILDREN_OFFSET, count(children));
+        buffer.put(index + INFANTS_OFFSET, count(infants));
+    }
+
+    /**
+     * Writes an order at the buffer's position and advances past it.
+     */
+    public static void encode(ByteBuffer buffer, long accountId, int adults, int children, int infants) {
+        encode(buffer, buffer.position(), accountId, adults, children, infants);
+        buffer.position(buffer.position() + ENCODED_LENGTH);
+    }
+
+    public static long accountId(ByteBuffer buffer, int index) {
+        return buffer.getLong(index + ACCOUNT_OFFSET);
+    }
+
+    public static int adults(ByteBuffer buffer, int index) {
+        return Byte.toUnsignedInt(buffer.get(index + ADULTS_OFFSET));
+    }
+
+    public static int children(ByteBuffer buffer, int index) {
+        return Byte.toUnsignedInt(buffer.get(index + CHILDREN_OFFSET));
+    }
+
+    public static int infants(ByteBuffer buffer, int index) {
+        return Byte.toUnsignedInt(buffer.get(index + INFANTS_OFFSET));
+    }
+
+    private static byte count(int count) {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("Ticket count must be between 0 and " + MAX_COUNT + ": " + count);
+        }
+        return (byte) count;
+    }
+}
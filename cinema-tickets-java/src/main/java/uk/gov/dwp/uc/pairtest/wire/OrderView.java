@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over one encoded order. {@link #wrap} re-points the same instance at another order, so a whole
+ * buffer of orders can be read with a single view and no copying.
+ */
+public final class OrderView {
+
+    private ByteBuffer buffer;
+    private int index;
+
+    public OrderView wrap(ByteBuffer buffer, int index) {
+        if (index < 0 || index > buffer.limit() - OrderCodec.ENCODED_LENGTH) {
+            throw new IndexOutOfBoundsException("No encoded order at index " + index);
+        }
+        this.buffer = buffer;
+        this.index = index;
+        return this;
+    }
+
+    public long accountId() {
+        return OrderCodec.accountId(buffer, index);
+    }
+
+    public int adults() {
+        return OrderCodec.adults(buffer, index);
+    }
+
+    public int children() {
+        return OrderCodec.children(buffer, index);
+    }
+
+    public int infants() {
+        return OrderCodec.infants(buffer, index);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderView{accountId=" + accountId() + ", adults=" + adults()
+                + ", children=" + children() + ", infants=" + infants() + '}';
+    }
+}
@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.admission.AccountRateLimiter;
+import uk.gov.dwp.uc.pairtest.admission.AdaptiveConcurrencyLimiter;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseThrottledException;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AdmissionControlledTicketServiceTest {
+
+    private static final TicketTypeRequest ONE_ADULT = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+    private final TicketPaymentService paymentService = spy(TicketPaymentService.class);
+    private final SeatReservationService seatReservationService = spy(SeatReservationService.class);
+    private final TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatReservationService);
+
+    @Test
+    public void testScriptedAccountIsThrottledWithoutTouchingTheGateway() {
+        // Given
+        AdmissionControlledTicketService service = new AdmissionControlledTicketService(ticketService,
+                new AccountRateLimiter(1.0, 2, 1024), new AdaptiveConcurrencyLimiter(10, 1, 100));
+
+        // When
+        service.purchaseTickets(1L, ONE_ADULT);
+        service.purchaseTickets(1L, ONE_ADULT);
+        PurchaseThrottledException exception = assertThrows(PurchaseThrottledException.class,
+                () -> service.purchaseTickets(1L, ONE_ADULT));
+        service.purchaseTickets(2L, ONE_ADULT);
+
+        // Then
+        assertEquals(InvalidPurchaseReason.RATE_LIMITED, exception.getReason());
+        assertTrue(exception.getRetryAfterNanos() > 0);
+        verify(paymentService, times(2)).makePayment(1L, 25);
+        verify(paymentService, times(1)).makePayment(2L, 25);
+    }
+
+    @Test
+    public void testPurchasesBeyondTheConcurrencyLimitFailFast() {
+        // Given
+        TicketService stalled = mock(TicketService.class);
+        CompletableFuture<PurchaseResult> pending = new CompletableFuture<>();
+        when(stalled.purchaseTicketsAsync(anyLong(), any())).thenReturn(pending);
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+        AdmissionControlledTicketService service = new AdmissionControlledTicketService(stalled,
+                new AccountRateLimiter(100.0, 10, 1024), concurrencyLimiter);
+
+        // When
+        service.purchaseTicketsAsync(1L, ONE_ADULT);
+        service.purchaseTicketsAsync(2L, ONE_ADULT);
+        CompletableFuture<PurchaseResult> third = service.purchaseTicketsAsync(3L, ONE_ADULT);
+
+        // Then
+        PurchaseThrottledException exception = assertThrows(PurchaseThrottledException.class,
+                () -> Futures.await(third));
+        assertEquals(InvalidPurchaseReason.OVERLOADED, exception.getReason());
+        assertEquals(2, concurrencyLimiter.inFlight());
+
+        pending.complete(new PurchaseResult(1L, 25, 1));
+        assertEquals(0, concurrencyLimiter.inFlight());
+    }
+
+    @Test
+    public void testLimitBacksOffOnDownstreamFailuresOnly() {
+        // Given
+        doThrow(new IllegalStateException("Gateway timeout")).when(paymentService).makePayment(eq(5L), anyInt());
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+        AdmissionControlledTicketService service = new AdmissionControlledTicketService(ticketService,
+                new AccountRateLimiter(100.0, 10, 1024), concurrencyLimiter);
+
+        // When
+        assertThrows(InvalidPurchaseException.class, () -> service.purchaseTickets(6L));
+        assertEquals(10, concurrencyLimiter.getLimit());
+        assertThrows(IllegalStateException.class, () -> service.purchaseTickets(5L, ONE_ADULT));
+
+        // Then
+        assertEquals(9, concurrencyLimiter.getLimit());
+        assertEquals(0, concurrencyLimiter.inFlight());
+    }
+
+}
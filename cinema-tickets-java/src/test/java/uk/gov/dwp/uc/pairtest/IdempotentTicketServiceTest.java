@@ -0,0 +1,150 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.Before;
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotentTicketServiceTest {
+
+    private static final TicketTypeRequest TWO_ADULTS = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+    private TicketPaymentService paymentService;
+    private SeatReservationService seatReservationService;
+    private IdempotentTicketService ticketService;
+
+    @Before
+    public void setUp() {
+        paymentService = spy(TicketPaymentService.class);
+        seatReservationService = spy(SeatReservationService.class);
+        ticketService = new IdempotentTicketService(
+                new TicketServiceImpl(paymentService, seatReservationService), 1_000, Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void testRetryReturnsFirstResultWithoutChargingAgain() {
+        // When
+        PurchaseResult first = ticketService.purchaseTickets("order-1", 1L, TWO_ADULTS);
+        PurchaseResult retry = ticketService.purchaseTickets("order-1", 1L, TWO_ADULTS);
+
+        // Then
+        assertSame(first, retry);
+        verify(paymentService, times(1)).makePayment(1L, 50);
+        verify(seatReservationService, times(1)).reserveSeat(1L, 2);
+    }
+
+    @Test
+    public void testRetryWhileFirstAttemptInFlightJoinsIt() {
+        // Given
+        CompletableFuture<Void> slowPayment = new CompletableFuture<>();
+        doReturn(slowPayment).when(paymentService).makePaymentAsync(1L, 50);
+
+        // When
+        CompletableFuture<PurchaseResult> first = ticketService.purchaseTicketsAsync("order-2", 1L, TWO_ADULTS);
+        CompletableFuture<PurchaseResult> retry = ticketService.purchaseTicketsAsync("order-2", 1L, TWO_ADULTS);
+        slowPayment.complete(null);
+
+        // Then
+        assertSame(first, retry);
+        verify(paymentService, times(1)).makePaymentAsync(1L, 50);
+    }
+
+    @Test
+    public void testSameKeyOnAnotherAccountIsIndependent() {
+        // When
+        ticketService.purchaseTickets("order-3", 1L, TWO_ADULTS);
+        ticketService.purchaseTickets("order-3", 2L, TWO_ADULTS);
+
+        // Then
+        verify(paymentService, times(1)).makePayment(1L, 50);
+        verify(paymentService, times(1)).makePayment(2L, 50);
+    }
+
+    @Test
+    public void testShedPaymentIsForgottenSoTheRetryGoesThrough() {
+        // Given: the gateway's guard refused the first call without making it
+        doThrow(new DependencyUnavailableException("payments", DependencyUnavailableException.Reason.CIRCUIT_OPEN))
+                .doNothing().when(paymentService).makePayment(1L, 50);
+
+        // When
+        assertThrows(DependencyUnavailableException.class,
+                () -> ticketService.purchaseTickets("order-4", 1L, TWO_ADULTS));
+        PurchaseResult retry = ticketService.purchaseTickets("order-4", 1L, TWO_ADULTS);
+
+        // Then
+        assertEquals(new PurchaseResult(1L, 50, 2), retry);
+        verify(paymentService, times(2)).makePayment(1L, 50);
+    }
+
+    @Test
+    public void testFailureWithAnUnknownOutcomeIsReplayedWithoutChargingAgain() {
+        // Given: the gateway may have taken the money before failing
+        IllegalStateException timeout = new IllegalStateException("Gateway timeout");
+        doThrow(timeout).doNothing().when(paymentService).makePayment(1L, 50);
+
+        // When
+        IllegalStateException first = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets("order-6", 1L, TWO_ADULTS));
+        IllegalStateException retry = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets("order-6", 1L, TWO_ADULTS));
+
+        // Then
+        assertSame(timeout, first);
+        assertSame(timeout, retry);
+        verify(paymentService, times(1)).makePayment(1L, 50);
+    }
+
+    @Test
+    public void testKeyReusedForADifferentOrderIsRefused() {
+        // Given
+        ticketService.purchaseTickets("order-7", 1L, TWO_ADULTS);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTickets("order-7", 1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3)));
+
+        // Then
+        verify(paymentService, times(1)).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testInFlightPurchaseIsNotEvictedByLaterOnes() {
+        // Given: room for one purchase, and a first purchase still waiting on the gateway
+        ticketService = new IdempotentTicketService(
+                new TicketServiceImpl(paymentService, seatReservationService), 1, Duration.ofMinutes(5));
+        CompletableFuture<Void> slowPayment = new CompletableFuture<>();
+        doReturn(slowPayment).when(paymentService).makePaymentAsync(1L, 50);
+        CompletableFuture<PurchaseResult> first = ticketService.purchaseTicketsAsync("order-8", 1L, TWO_ADULTS);
+
+        // When
+        ticketService.purchaseTickets("order-9", 2L, TWO_ADULTS);
+        CompletableFuture<PurchaseResult> retry = ticketService.purchaseTicketsAsync("order-8", 1L, TWO_ADULTS);
+        slowPayment.complete(null);
+
+        // Then
+        assertSame(first, retry);
+        verify(paymentService, times(1)).makePaymentAsync(1L, 50);
+    }
+
+    @Test
+    public void testRejectionIsReplayed() {
+        // Given
+        TicketTypeRequest childOnly = new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1);
+
+        // Then
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets("order-5", 1L, childOnly));
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets("order-5", 1L, childOnly));
+        verifyNoInteractions(paymentService);
+    }
+
+}
@@ -0,0 +1,147 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.Before;
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TicketServiceImplAsyncTest {
+
+    private TicketPaymentService paymentService;
+    private SeatReservationService seatReservationService;
+    private TicketServiceImpl ticketService;
+
+    @Before
+    public void setUp() {
+        paymentService = mock(TicketPaymentService.class);
+        seatReservationService = mock(SeatReservationService.class);
+        ticketService = new TicketServiceImpl(paymentService, seatReservationService);
+    }
+
+    @Test
+    public void testReservationWaitsForPaymentWithoutBlockingCaller() throws Exception {
+        // Given
+        CompletableFuture<Void> payment = new CompletableFuture<>();
+        when(paymentService.makePaymentAsync(1L, 65)).thenReturn(payment);
+        when(seatReservationService.reserveSeatAsync(1L, 3)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        CompletableFuture<PurchaseResult> result = ticketService.purchaseTicketsAsync(1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1));
+
+        // Then: nothing is reserved until the gateway answers
+        assertFalse(result.isDone());
+        verify(seatReservationService, never()).reserveSeatAsync(anyLong(), anyInt());
+
+        payment.complete(null);
+
+        assertEquals(new PurchaseResult(1L, 65, 3), result.get());
+        verify(seatReservationService, times(1)).reserveSeatAsync(1L, 3);
+    }
+
+    @Test
+    public void testRejectedOrderCompletesExceptionally() throws InterruptedException {
+        // When
+        CompletableFuture<PurchaseResult> result = ticketService.purchaseTicketsAsync(1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2));
+
+        // Then
+        try {
+            result.get();
+            fail("Order without an adult should be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvalidPurchaseException);
+            assertEquals(InvalidPurchaseReason.NO_ADULT, ((InvalidPurchaseException) e.getCause()).getReason());
+        }
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
+    @Test
+    public void testFailedPaymentSkipsReservation() {
+        // Given
+        when(paymentService.makePaymentAsync(1L, 25))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Card declined")));
+
+        // When
+        CompletableFuture<PurchaseResult> result = ticketService.purchaseTicketsAsync(1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+
+        // Then
+        assertTrue(result.isCompletedExceptionally());
+        verify(seatReservationService, never()).reserveSeatAsync(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testDefaultAsyncVariantsDelegateToBlockingCalls() throws Exception {
+        // Given: third-party implementations that only provide the blocking calls
+        TicketServiceImpl service = new TicketServiceImpl(
+                spy(TicketPaymentService.class), spy(SeatReservationService.class));
+
+        // When
+        PurchaseResult result = service.purchaseTicketsAsync(7L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)).get();
+
+        // Then
+        assertEquals(new PurchaseResult(7L, 25, 1), result);
+    }
+
+    @Test
+    public void testJournalFailureFailsTheFutureAndStopsTheClock() {
+        // Given
+        PurchaseMetrics metrics = mock(PurchaseMetrics.class);
+        when(metrics.start(PurchaseStage.PURCHASE)).thenReturn(11L);
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        IllegalStateException closed = new IllegalStateException("The purchase journal is closed.");
+        when(journal.intent(anyLong(), anyInt(), anyInt())).thenThrow(closed);
+        TicketServiceImpl service = new TicketServiceImpl(paymentService, seatReservationService,
+                PricingEngine.standard(), metrics, journal);
+
+        // When
+        CompletableFuture<PurchaseResult> result = service.purchaseTicketsAsync(1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+
+        // Then
+        ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+        assertSame(closed, thrown.getCause());
+        verify(metrics, times(1)).stop(PurchaseStage.PURCHASE, 11L);
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
+    @Test
+    public void testBlockingOnlyServiceGetsAnAsyncPurchase() {
+        // Given: a service that only implements the blocking call
+        InvalidPurchaseException rejected = new InvalidPurchaseException(InvalidPurchaseReason.NO_ADULT);
+        TicketService blockingOnly = (accountId, ticketTypeRequests) -> {
+            if (accountId == 2L) {
+                throw rejected;
+            }
+        };
+
+        // When
+        CompletableFuture<PurchaseResult> purchased = blockingOnly.purchaseTicketsAsync(1L);
+        CompletableFuture<PurchaseResult> refused = blockingOnly.purchaseTicketsAsync(2L);
+
+        // Then
+        assertTrue(purchased.isDone());
+        assertNull(purchased.join());
+        ExecutionException thrown = assertThrows(ExecutionException.class, refused::get);
+        assertSame(rejected, thrown.getCause());
+    }
+
+}
@@ -2,11 +2,23 @@ package uk.gov.dwp.uc.pairtest;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+import uk.gov.dwp.uc.pairtest.seating.SeatHoldExpiredException;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class TicketServiceImplMockitoTest {
@@ -87,6 +99,54 @@ public class TicketServiceImplMockitoTest {
         ticketService.purchaseTickets(1L, adultTicket);
     }
 
+    @Test
+    public void testNegativeTicketCountIsRejectedBeforeAnyExternalCall() {
+        // Given
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 5);
+        TicketTypeRequest childTicket = new TicketTypeRequest(TicketTypeRequest.Type.CHILD, -2);
+
+        // When
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, adultTicket, childTicket));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.INVALID_REQUEST, exception.getReason());
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
+    @Test
+    public void testRejectionReasonFollowsRulePrecedence() {
+        // Given: no adult and too many tickets at once
+        TicketTypeRequest childTicket = new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 30);
+
+        // When
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, childTicket));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.NO_ADULT, exception.getReason());
+        assertEquals(0, exception.getStackTrace().length); // Business rejections carry no stack trace
+    }
+
+    @Test
+    public void testZeroAdultTicketRequestIsAnInvalidRequest() {
+        // Given: an adult request, but for no tickets
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 0);
+        TicketTypeRequest childTicket = new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2);
+
+        // When
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, adultTicket, childTicket));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.INVALID_REQUEST, exception.getReason());
+        assertEquals("Invalid order. Please check your ticket request details.", exception.getMessage());
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
     @Test
     public void testCorrectPaymentCalculation() {
         // Given
@@ -120,4 +180,93 @@ public class TicketServiceImplMockitoTest {
                 .reserveSeat(1L, 25); // 20 adults + 5 children
     }
 
+    // ************************ TWO-PHASE PURCHASES ************************
+
+    @Test
+    public void testExpiredHoldIsRefundedAndRejected() {
+        // Given
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+        doThrow(new SeatHoldExpiredException("Hold lapsed"))
+                .when(seatReservationService).confirmHold(1L, 7L, 2);
+
+        // When
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, 7L, adultTicket));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.HOLD_EXPIRED, exception.getReason());
+        InOrder paidThenRefunded = inOrder(paymentService);
+        paidThenRefunded.verify(paymentService).makePayment(1L, 2 * PRICE_FOR_ADULTS);
+        paidThenRefunded.verify(paymentService).refundPayment(1L, 2 * PRICE_FOR_ADULTS);
+    }
+
+    @Test
+    public void testFailedRefundOfAnExpiredHoldIsReportedAndLeavesThePurchasePaid() {
+        // Given
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        when(journal.commit()).thenReturn(CompletableFuture.completedFuture(null));
+        ticketService = new TicketServiceImpl(paymentService, seatReservationService, PricingEngine.standard(),
+                PurchaseMetrics.NOOP, journal);
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+        SeatHoldExpiredException expired = new SeatHoldExpiredException("Hold lapsed");
+        IllegalStateException refundFailed = new IllegalStateException("Gateway down");
+        doThrow(expired).when(seatReservationService).confirmHold(1L, 7L, 1);
+        doThrow(refundFailed).when(paymentService).refundPayment(1L, PRICE_FOR_ADULTS);
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(1L, 7L, adultTicket));
+
+        // Then
+        assertSame(refundFailed, thrown);
+        assertSame(expired, thrown.getSuppressed()[0]);
+        verify(journal).paid(anyLong());
+        verify(journal, never()).compensated(anyLong());
+    }
+
+    @Test
+    public void testOrderThatDoesNotMatchTheHeldSeatsIsRefunded() {
+        // Given: two seats held, three tickets ordered
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3);
+        doThrow(new SeatHoldExpiredException("No live hold of 3 seats"))
+                .when(seatReservationService).confirmHold(1L, 7L, 3);
+
+        // When
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, 7L, adultTicket));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.HOLD_EXPIRED, exception.getReason());
+        verify(seatReservationService).confirmHold(1L, 7L, 3);
+        verify(paymentService).refundPayment(1L, 3 * PRICE_FOR_ADULTS);
+    }
+
+    @Test
+    public void testConfirmFailingForAnotherReasonIsJournalledAndRefunded() {
+        // Given
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        when(journal.intent(anyLong(), anyInt(), anyInt())).thenReturn(42L);
+        when(journal.commit()).thenReturn(CompletableFuture.completedFuture(null));
+        ticketService = new TicketServiceImpl(paymentService, seatReservationService, PricingEngine.standard(),
+                PurchaseMetrics.NOOP, journal);
+        TicketTypeRequest adultTicket = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+        DependencyUnavailableException timedOut =
+                new DependencyUnavailableException("seats", DependencyUnavailableException.Reason.TIMED_OUT);
+        doThrow(timedOut).when(seatReservationService).confirmHold(1L, 7L, 2);
+
+        // When
+        DependencyUnavailableException thrown = assertThrows(DependencyUnavailableException.class,
+                () -> ticketService.purchaseTickets(1L, 7L, adultTicket));
+
+        // Then
+        assertSame(timedOut, thrown);
+        InOrder journalled = inOrder(journal, seatReservationService, paymentService);
+        journalled.verify(journal).paid(42L);
+        journalled.verify(journal).reservationStarted(42L);
+        journalled.verify(seatReservationService).confirmHold(1L, 7L, 2);
+        journalled.verify(journal).reservationFailed(42L);
+        journalled.verify(paymentService).refundPayment(1L, 2 * PRICE_FOR_ADULTS);
+        journalled.verify(journal).compensated(42L);
+    }
+
 }
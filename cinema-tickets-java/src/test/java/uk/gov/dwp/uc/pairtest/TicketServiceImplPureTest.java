@@ -58,19 +58,6 @@ public class TicketServiceImplPureTest {
         }
     }
 
-    private Object invokePrivateMethodTicketTypeArgument(String methodName, TicketTypeRequest[] requests)
-            throws NoSuchMethodException,
-                   IllegalAccessException,
-                   InvocationTargetException {
-        if (requests == null || requests.length == 0) {
-            throw new IllegalArgumentException("Invalid request data provided.");
-        }
-        Method method = TicketServiceImpl.class.getDeclaredMethod(methodName, TicketTypeRequest[].class);
-        method.setAccessible(true);
-
-        return method.invoke(ticketService, (Object) requests);
-    }
-
     @Before
     public void setUp() {
         TicketPaymentService paymentService = new TicketPaymentServiceImpl();
@@ -98,60 +85,58 @@ public class TicketServiceImplPureTest {
         assertEquals("Null argument not allowed for method: accountIsValid", exception.getMessage());
     }
 
+    //************************* Direct tests (Without Reflection) ******************************************************
+
     @Test
-    // *Should Return False If No Adult Ticket In Order, Otherwise True
-    public void testNoAdultTicket()
-            throws NoSuchMethodException,
-                   InvocationTargetException,
-                   IllegalAccessException {
+    // *Should Reject An Order With No Adult Ticket, Otherwise Accept It
+    public void testNoAdultTicket() {
         TicketTypeRequest[] requests1 = createOrder(0, 2, 1);
         TicketTypeRequest[] requests2 = createOrder(2, 1, 1);
 
-        assertFalse((boolean) invokePrivateMethodTicketTypeArgument("ticketRequestIsValid", requests1));
-        assertTrue((boolean) invokePrivateMethodTicketTypeArgument("ticketRequestIsValid", requests2));
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(123L, requests1));
+        ticketService.purchaseTickets(123L, requests2);
     }
 
     @Test
-    // *Should Return False If More Than 25 Tickets, Otherwise True
-    public void testMoreThan25Tickets()
-            throws InvocationTargetException,
-                   IllegalAccessException,
-                   NoSuchMethodException {
+    // *Should Reject More Than 25 Tickets, Otherwise Accept The Order
+    public void testMoreThan25Tickets() {
         TicketTypeRequest[] requests1 = createOrder(26, 0, 0);
         TicketTypeRequest[] requests2 = createOrder(20, 2, 3);
-        boolean isValid1 = (boolean) invokePrivateMethodTicketTypeArgument("ticketRequestIsValid", requests1);
-        boolean isValid2 = (boolean) invokePrivateMethodTicketTypeArgument("ticketRequestIsValid", requests2);
 
-        assertFalse(isValid1);
-        assertTrue(isValid2);
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(123L, requests1)
+        );
+        assertEquals("Invalid order. Maximum 25 tickets are allowed per purchase.", exception.getMessage());
+        ticketService.purchaseTickets(123L, requests2);
     }
 
     @Test
-    // *Should Calculate Total Payment Correctly
-    public void testCalculateTotalPayment()
-            throws NoSuchMethodException,
-                   InvocationTargetException,
-                   IllegalAccessException {
+    // *Should Charge The Total Payment Correctly
+    public void testCalculateTotalPayment() {
+        int[] charged = new int[1];
+        ticketService = new TicketServiceImpl((accountId, amount) -> charged[0] += amount,
+                new SeatReservationServiceImpl());
         TicketTypeRequest[] requests = createOrder(1, 2, 3);
         int expectedTotal = (1 * PRICE_FOR_ADULTS) + (2 * PRICE_FOR_KIDS) + (3 * PRICE_FOR_INFANTS);
-        int totalPayment = (int) invokePrivateMethodTicketTypeArgument("calculateTotalPayment", requests);
 
-        assertEquals(expectedTotal, totalPayment); // 25 (adult) + 30 (kids)
+        ticketService.purchaseTickets(123L, requests);
+
+        assertEquals(expectedTotal, charged[0]); // 25 (adult) + 30 (kids)
     }
 
     @Test
-    // *Should Calculate Total Seats Correctly
-    public void testCalculateTotalSeats()
-            throws NoSuchMethodException,
-                   InvocationTargetException,
-                   IllegalAccessException {
+    // *Should Reserve The Total Seats Correctly
+    public void testCalculateTotalSeats() {
+        int[] reserved = new int[1];
+        ticketService = new TicketServiceImpl(new TicketPaymentServiceImpl(),
+                (accountId, seats) -> reserved[0] += seats);
         TicketTypeRequest[] requests = createOrder(1, 2, 1);
-        int totalSeats = (int) invokePrivateMethodTicketTypeArgument("calculateTotalSeats", requests);
 
-        assertEquals(3, totalSeats); // 1 adult + 2 children
-    }
+        ticketService.purchaseTickets(123L, requests);
 
-    //************************* Direct tests (Without Reflection) ******************************************************
+        assertEquals(3, reserved[0]); // 1 adult + 2 children
+    }
 
     @Test
     // *Ensures calculations are precise and constraints are respected
@@ -0,0 +1,159 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TicketServiceImplSagaTest {
+
+    private final TicketPaymentService paymentService = spy(TicketPaymentService.class);
+    private final SeatReservationService seatReservationService = spy(SeatReservationService.class);
+    private final PurchaseJournal journal = mock(PurchaseJournal.class);
+    private final ExecutorService sagaExecutor = Executors.newSingleThreadExecutor();
+    private final TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatReservationService,
+            PricingEngine.standard(), PurchaseMetrics.NOOP, journal, sagaExecutor);
+
+    private static final TicketTypeRequest TWO_ADULTS = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+    {
+        when(journal.intent(anyLong(), anyInt(), anyInt())).thenReturn(42L);
+        when(journal.commit()).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @After
+    public void tearDown() {
+        sagaExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPaymentAndReservationOverlap() throws InterruptedException {
+        // Given
+        CountDownLatch reservationStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // A sequential purchase would never get here before the payment returns
+            assertTrue(reservationStarted.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(paymentService).makePayment(1L, 50);
+        doAnswer(invocation -> {
+            reservationStarted.countDown();
+            return null;
+        }).when(seatReservationService).reserveSeat(1L, 2);
+
+        // When
+        PurchaseResult result = Futures.await(ticketService.purchaseTicketsAsync(1L, TWO_ADULTS));
+
+        // Then
+        assertEquals(new PurchaseResult(1L, 50, 2), result);
+        verify(journal, times(1)).paid(42L);
+        verify(journal, times(1)).reserved(42L);
+        verify(paymentService, never()).refundPayment(anyLong(), anyInt());
+        verify(seatReservationService, never()).releaseSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testReservationIsJournalledBeforeItIsSent() {
+        // When
+        ticketService.purchaseTickets(6L, TWO_ADULTS);
+
+        // Then
+        InOrder journalledFirst = inOrder(journal, seatReservationService);
+        journalledFirst.verify(journal).reservationStarted(42L);
+        journalledFirst.verify(seatReservationService).reserveSeat(6L, 2);
+        journalledFirst.verify(journal).reserved(42L);
+    }
+
+    @Test
+    public void testDeclinedPaymentReleasesTheSeats() {
+        // Given
+        IllegalStateException declined = new IllegalStateException("Card declined");
+        doThrow(declined).when(paymentService).makePayment(2L, 50);
+        doNothing().when(seatReservationService).releaseSeat(2L, 2);
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(2L, TWO_ADULTS));
+
+        // Then
+        assertSame(declined, thrown);
+        verify(seatReservationService, times(1)).reserveSeat(2L, 2);
+        InOrder releasedFirst = inOrder(seatReservationService, journal);
+        releasedFirst.verify(seatReservationService, times(1)).releaseSeat(2L, 2);
+        releasedFirst.verify(journal, times(1)).reservationFailed(42L);
+        releasedFirst.verify(journal, times(1)).paymentFailed(42L);
+        verify(journal, never()).reserved(42L);
+    }
+
+    @Test
+    public void testFailedReservationRefundsThePayment() {
+        // Given
+        IllegalStateException soldOut = new IllegalStateException("Screening full");
+        doThrow(soldOut).when(seatReservationService).reserveSeat(3L, 2);
+        doNothing().when(paymentService).refundPayment(3L, 50);
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(3L, TWO_ADULTS));
+
+        // Then
+        assertSame(soldOut, thrown);
+        verify(paymentService, times(1)).refundPayment(3L, 50);
+        InOrder stillPaidUntilRefunded = inOrder(journal);
+        stillPaidUntilRefunded.verify(journal, times(1)).paid(42L);
+        stillPaidUntilRefunded.verify(journal, times(1)).reservationFailed(42L);
+        stillPaidUntilRefunded.verify(journal, times(1)).compensated(42L);
+    }
+
+    @Test
+    public void testFailedRefundIsReportedAndLeavesThePurchasePaid() {
+        // Given
+        IllegalStateException soldOut = new IllegalStateException("Screening full");
+        doThrow(soldOut).when(seatReservationService).reserveSeat(4L, 2);
+
+        // When (the default gateway takes no refunds)
+        CompletableFuture<PurchaseResult> purchase = ticketService.purchaseTicketsAsync(4L, TWO_ADULTS);
+
+        // Then
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> Futures.await(purchase));
+        assertSame(soldOut, thrown);
+        assertTrue(thrown.getSuppressed()[0] instanceof UnsupportedOperationException);
+        verify(journal, times(1)).paid(42L);
+        verify(journal, never()).compensated(42L);
+    }
+
+    @Test
+    public void testSeatsThatCannotBeReleasedLeaveThePurchaseOpen() {
+        // Given
+        IllegalStateException declined = new IllegalStateException("Card declined");
+        doThrow(declined).when(paymentService).makePayment(5L, 50);
+
+        // When (the default seat service releases nothing)
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(5L, TWO_ADULTS));
+
+        // Then: still open with its seats unaccounted for, so recovery reports it
+        assertSame(declined, thrown);
+        assertTrue(thrown.getSuppressed()[0] instanceof UnsupportedOperationException);
+        verify(journal, times(1)).reservationStarted(42L);
+        verify(journal, never()).reservationFailed(42L);
+        verify(journal, never()).paymentFailed(42L);
+        verify(journal, never()).compensated(42L);
+    }
+
+}
@@ -0,0 +1,95 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class VirtualThreadTicketServiceTest {
+
+    private final CountDownLatch gatewayOpen = new CountDownLatch(1);
+    private SeatReservationService seatReservationService;
+    private VirtualThreadTicketService ticketService;
+
+    private static TicketTypeRequest adults(int count) {
+        return new TicketTypeRequest(TicketTypeRequest.Type.ADULT, count);
+    }
+
+    @Before
+    public void setUp() {
+        TicketPaymentService slowGateway = (accountId, totalAmountToPay) -> {
+            try {
+                gatewayOpen.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        seatReservationService = spy(SeatReservationService.class);
+        ticketService = new VirtualThreadTicketService(
+                new TicketServiceImpl(slowGateway, seatReservationService), 2, Duration.ofMillis(20));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        gatewayOpen.countDown();
+        ticketService.close();
+    }
+
+    @Test
+    public void testPurchasesBeyondLimitAreTurnedAway() throws Exception {
+        // Given: two purchases stuck on the gateway
+        CompletableFuture<PurchaseResult> first = ticketService.purchaseTicketsAsync(1L, adults(1));
+        CompletableFuture<PurchaseResult> second = ticketService.purchaseTicketsAsync(2L, adults(2));
+
+        // When
+        CompletableFuture<PurchaseResult> third = ticketService.purchaseTicketsAsync(3L, adults(3));
+
+        // Then
+        assertTrue(third.isCompletedExceptionally());
+        assertEquals(2, ticketService.inFlight());
+
+        gatewayOpen.countDown();
+        assertEquals(new PurchaseResult(1L, 25, 1), first.get(1, TimeUnit.SECONDS));
+        assertEquals(new PurchaseResult(2L, 50, 2), second.get(1, TimeUnit.SECONDS));
+        assertEquals(0, ticketService.inFlight());
+    }
+
+    @Test
+    public void testBlockingCallRethrowsBackpressureAndBusinessRejections() {
+        // Given
+        ticketService.purchaseTicketsAsync(1L, adults(1));
+        ticketService.purchaseTicketsAsync(2L, adults(1));
+
+        // Then
+        assertThrows(RejectedExecutionException.class, () -> ticketService.purchaseTickets(3L, adults(1)));
+
+        gatewayOpen.countDown();
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(4L, adults(26)));
+    }
+
+    @Test
+    public void testBlockingPurchaseCompletesOnWorkerThread() {
+        // Given
+        gatewayOpen.countDown();
+
+        // When
+        ticketService.purchaseTickets(5L, adults(2));
+
+        // Then
+        verify(seatReservationService, times(1)).reserveSeat(5L, 2);
+    }
+
+}
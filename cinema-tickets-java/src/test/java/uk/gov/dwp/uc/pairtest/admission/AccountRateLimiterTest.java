@@ -0,0 +1,61 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class AccountRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L); // nanoTime may be negative
+
+    @Test
+    public void testBurstThenOnePurchasePerInterval() {
+        // Given 2 purchases a second, bursts of 3
+        AccountRateLimiter limiter = new AccountRateLimiter(2.0, 3, 64, now::get);
+
+        // When / Then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire(1L));
+        }
+        long retryAfter = limiter.tryAcquire(1L);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), retryAfter);
+        assertEquals(0L, limiter.tryAcquire(2L)); // Other accounts have their own bucket
+
+        now.addAndGet(retryAfter);
+        assertEquals(0L, limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+    }
+
+    @Test
+    public void testRefilledSlotsAreReusedByOtherAccounts() {
+        // Given a table with room for only 16 accounts
+        AccountRateLimiter limiter = new AccountRateLimiter(1.0, 1, 16, now::get);
+        for (long accountId = 1; accountId <= 16; accountId++) {
+            assertEquals(0L, limiter.tryAcquire(accountId));
+        }
+
+        // When every slot is busy, newcomers are let through untracked
+        assertEquals(0L, limiter.tryAcquire(17L));
+        assertEquals(0L, limiter.tryAcquire(17L));
+        assertEquals(2L, limiter.untrackedAdmissions());
+
+        // Then once buckets have refilled, their slots are handed over
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0L, limiter.tryAcquire(17L));
+        assertTrue(limiter.tryAcquire(17L) > 0);
+        assertEquals(2L, limiter.untrackedAdmissions());
+    }
+
+    @Test
+    public void testInvalidAccountsAreLeftForValidation() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1.0, 1, 16, now::get);
+
+        assertEquals(0L, limiter.tryAcquire(0L));
+        assertEquals(0L, limiter.tryAcquire(0L));
+        assertEquals(0L, limiter.untrackedAdmissions());
+    }
+
+}
@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class OrderTest {
+
+    @Test
+    public void testRequestsFoldIntoOnePackedOrder() {
+        // Given
+        TicketTypeRequest[] requests = {
+                TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 2),
+                TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 3),
+                TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 70_000)
+        };
+
+        // When
+        long order = Order.of(requests);
+
+        // Then
+        assertEquals(3, Order.adults(order));
+        assertEquals(3, Order.children(order));
+        assertEquals(0xFFFF, Order.infants(order)); // Saturated, still far too many
+        assertEquals(Order.of(3, 3, 0xFFFF), order);
+        assertEquals(Order.MALFORMED, Order.of(TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, -1)));
+        assertEquals(Order.MALFORMED, Order.of((TicketTypeRequest) null));
+        assertEquals(Order.EMPTY, Order.of((TicketTypeRequest[]) null));
+    }
+
+    @Test
+    public void testCommonRequestsAreSharedInstances() {
+        assertSame(TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 25),
+                TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 25));
+        assertNotSame(TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 26),
+                TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 26));
+        assertEquals(new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 4),
+                TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 4));
+        assertArrayEquals(new TicketTypeRequest[] {
+                TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 1),
+                TicketTypeRequest.of(TicketTypeRequest.Type.CHILD, 2),
+                TicketTypeRequest.of(TicketTypeRequest.Type.INFANT, 0)
+        }, Order.toRequests(Order.of(1, 2, 0)));
+    }
+
+    @Test
+    public void testServicePurchasesPackedOrdersUnderTheSameRules() {
+        // Given
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        SeatReservationService seatReservationService = mock(SeatReservationService.class);
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatReservationService);
+
+        // When
+        ticketService.purchaseOrder(1L, Order.of(2, 1, 1));
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseOrder(2L, Order.of(0, 2, 0)));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.NO_ADULT, exception.getReason());
+        verify(paymentService, times(1)).makePayment(1L, 65);
+        verify(seatReservationService, times(1)).reserveSeat(1L, 3);
+        verifyNoMoreInteractions(paymentService, seatReservationService);
+    }
+
+}
@@ -0,0 +1,175 @@
+package uk.gov.dwp.uc.pairtest.ingest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyUnavailableException;
+import uk.gov.dwp.uc.pairtest.util.OutcomeUnknownException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BulkOrderIngesterTest {
+
+    private static final long DECLINED_ACCOUNT = 666L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TicketPaymentService paymentService = spy(TicketPaymentService.class);
+    private final SeatReservationService seatReservationService = spy(SeatReservationService.class);
+    private final TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatReservationService);
+
+    private Path write(String content) throws IOException {
+        Path orders = folder.newFile("orders.csv").toPath();
+        Files.write(orders, content.getBytes(StandardCharsets.US_ASCII));
+        return orders;
+    }
+
+    @Test
+    public void testEveryOrderGetsAResultLineInInputOrder() throws IOException {
+        // Given
+        doThrow(new IllegalStateException("Card declined, try again")).when(paymentService)
+                .makePayment(eq(DECLINED_ACCOUNT), anyInt());
+        Path orders = write("# school bookings\n"
+                + "1,2,1,0\n"
+                + "\n"
+                + "2,0,3,0\r\n"
+                + "3,2,x,1\n"
+                + DECLINED_ACCOUNT + ",1,0,0\n"
+                + "4,20,5,0");
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 1, 4).ingest(orders, results);
+
+        // Then
+        List<String> lines = Files.readAllLines(results, StandardCharsets.US_ASCII);
+        assertEquals(Arrays.asList(
+                BulkOrderIngester.RESULT_HEADER,
+                "1,PURCHASED,65,3",
+                "2,REJECTED,NO_ADULT",
+                ",MALFORMED,36", // No account, so the byte offset of the bad line is the detail
+                DECLINED_ACCOUNT + ",FAILED,Card declined; try again",
+                "4,PURCHASED,575,25"), lines);
+        assertEquals(2, summary.getPurchased());
+        assertEquals(1, summary.getRejected());
+        assertEquals(1, summary.getFailed());
+        assertEquals(1, summary.getMalformed());
+    }
+
+    @Test
+    public void testParallelChunksKeepInputOrder() throws IOException {
+        // Given
+        StringBuilder content = new StringBuilder();
+        for (int accountId = 1; accountId <= 5_000; accountId++) {
+            content.append(accountId).append(',').append(1 + accountId % 20).append(",2,1\n");
+        }
+        Path orders = write(content.toString());
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 4, 64).ingest(orders, results);
+
+        // Then
+        List<String> lines = Files.readAllLines(results, StandardCharsets.US_ASCII);
+        assertEquals(5_001, lines.size());
+        for (int accountId = 1; accountId <= 5_000; accountId++) {
+            assertTrue(lines.get(accountId).startsWith(accountId + ","));
+        }
+        assertEquals(5_000, summary.getTotal());
+        assertEquals(5_000 - summary.getRejected(), summary.getPurchased());
+        verify(paymentService, times((int) summary.getPurchased())).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testCountTooBigForAnIntIsMalformedNotWrapped() throws IOException {
+        // Given: 4294967297 would narrow to 1 adult
+        Path orders = write("1,4294967297,0,0\n"
+                + "2,1,0,2147483648\n"
+                + "3,1,0,0\n");
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 1, 4).ingest(orders, results);
+
+        // Then
+        List<String> lines = Files.readAllLines(results, StandardCharsets.US_ASCII);
+        assertEquals(Arrays.asList(
+                BulkOrderIngester.RESULT_HEADER,
+                ",MALFORMED,0",
+                ",MALFORMED,17",
+                "3,PURCHASED,25,1"), lines);
+        assertEquals(2, summary.getMalformed());
+        verify(paymentService, times(1)).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testEmptyFileProducesOnlyHeader() throws IOException {
+        // Given
+        Path orders = write("");
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 2, 8).ingest(orders, results);
+
+        // Then
+        assertEquals(0, summary.getTotal());
+        assertEquals(1, Files.readAllLines(results).size());
+    }
+
+    @Test
+    public void testTimedOutOrdersAreUnknownNotFailed() throws IOException {
+        // Given: one payment the guard gave up on, one whose blocked caller stopped waiting
+        doThrow(new DependencyUnavailableException("payments", DependencyUnavailableException.Reason.TIMED_OUT))
+                .when(paymentService).makePayment(eq(1L), anyInt());
+        doThrow(new OutcomeUnknownException("Timed out after PT30S", null))
+                .when(paymentService).makePayment(eq(2L), anyInt());
+        Path orders = write("1,1,0,0\n2,1,0,0\n");
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 1, 4).ingest(orders, results);
+
+        // Then: either may have been charged, so neither is reported as failed
+        List<String> lines = Files.readAllLines(results, StandardCharsets.US_ASCII);
+        assertEquals(Arrays.asList(
+                BulkOrderIngester.RESULT_HEADER,
+                "1,UNKNOWN,payments unavailable: TIMED_OUT",
+                "2,UNKNOWN,Timed out after PT30S"), lines);
+        assertEquals(2, summary.getUnknown());
+        assertEquals(0, summary.getFailed());
+        assertEquals(2, summary.getTotal());
+    }
+
+    @Test
+    public void testCarriageReturnOnlyEndsALine() throws IOException {
+        // Given: a stray carriage return inside a count, and a CRLF on the last line
+        Path orders = write("1,2,0,1\r1\n"
+                + "2,1,0,0\r");
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+
+        // When
+        IngestionSummary summary = new BulkOrderIngester(ticketService, 1, 4).ingest(orders, results);
+
+        // Then: 1\r1 is never read as 11 infants
+        List<String> lines = Files.readAllLines(results, StandardCharsets.US_ASCII);
+        assertEquals(Arrays.asList(
+                BulkOrderIngester.RESULT_HEADER,
+                ",MALFORMED,0",
+                "2,PURCHASED,25,1"), lines);
+        assertEquals(1, summary.getMalformed());
+        verify(paymentService, times(1)).makePayment(anyLong(), anyInt());
+    }
+
+}
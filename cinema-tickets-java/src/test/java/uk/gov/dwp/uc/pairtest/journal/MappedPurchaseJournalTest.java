@@ -0,0 +1,291 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.util.Futures;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MappedPurchaseJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    private static final Duration COMMIT_INTERVAL = Duration.ofMillis(5);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TicketPaymentService paymentService = spy(TicketPaymentService.class);
+    private final SeatReservationService seatReservationService = spy(SeatReservationService.class);
+
+    private TicketServiceImpl ticketService(PurchaseJournal journal) {
+        return new TicketServiceImpl(paymentService, seatReservationService, PricingEngine.standard(),
+                PurchaseMetrics.NOOP, journal);
+    }
+
+    private static TicketTypeRequest adults(int count) {
+        return new TicketTypeRequest(TicketTypeRequest.Type.ADULT, count);
+    }
+
+    @Test
+    public void testFinishedPurchasesLeaveNothingToRecover() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        doThrow(new IllegalStateException("Card declined")).when(paymentService).makePayment(eq(3L), anyInt());
+
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            TicketServiceImpl ticketService = ticketService(journal);
+
+            // When
+            ticketService.purchaseTickets(1L, adults(2));
+            Futures.await(ticketService.purchaseTicketsAsync(2L, adults(1)));
+            assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(3L, adults(1)));
+        }
+
+        // Then
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertTrue(reopened.pendingPurchases().isEmpty());
+            assertEquals(4L, reopened.intent(4L, 25, 1)); // Ids carry on from the previous run
+        }
+    }
+
+    @Test
+    public void testRecoveryReservesSeatsForPaidPurchases() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        doThrow(new IllegalStateException("Process killed")).when(seatReservationService).reserveSeat(7L, 3);
+
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertThrows(IllegalStateException.class, () -> ticketService(journal).purchaseTickets(7L, adults(3)));
+        }
+        verify(paymentService, times(1)).makePayment(7L, 75);
+        reset(seatReservationService);
+
+        // When
+        RecoverySummary summary;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertEquals(1, journal.pendingPurchases().size());
+            assertTrue(journal.pendingPurchases().get(0).isPaid());
+            summary = journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertEquals(1, summary.getSeatsReservedFor());
+        assertTrue(summary.getUnconfirmedPayments().isEmpty());
+        verify(seatReservationService, times(1)).reserveSeat(7L, 3);
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertTrue(reopened.pendingPurchases().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRecoveryReportsPurchasesStoppedDuringPayment() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            journal.intent(9L, 40, 2);
+        }
+
+        // When
+        RecoverySummary summary;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            summary = journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertEquals(0, summary.getSeatsReservedFor());
+        assertEquals(1, summary.getUnconfirmedPayments().size());
+        assertEquals(9L, summary.getUnconfirmedPayments().get(0).getAccountId());
+        assertEquals(40, summary.getUnconfirmedPayments().get(0).getTotalAmountToPay());
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    public void testRecoveryLeavesStartedReservationsToBeCheckedByHand() throws IOException {
+        // Given: the process stopped while the seat service was being asked
+        Path directory = folder.getRoot().toPath();
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            long purchaseId = journal.intent(11L, 50, 2);
+            journal.paid(purchaseId);
+            journal.reservationStarted(purchaseId);
+        }
+
+        // When
+        RecoverySummary summary;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertTrue(journal.pendingPurchases().get(0).isReservationStarted());
+            summary = journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertEquals(0, summary.getSeatsReservedFor());
+        assertEquals(1, summary.getUnconfirmedReservations().size());
+        assertEquals(11L, summary.getUnconfirmedReservations().get(0).getAccountId());
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    public void testRecoveryReportsUnpaidPurchasesWhoseSeatsWereNotReleased() throws IOException {
+        // Given: a saga purchase whose payment was declined and whose seats could not be given back
+        Path directory = folder.getRoot().toPath();
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            journal.reservationStarted(journal.intent(12L, 50, 2));
+        }
+
+        // When
+        RecoverySummary summary;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            summary = journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertTrue(summary.getUnconfirmedPayments().isEmpty());
+        assertEquals(1, summary.getUnconfirmedReservations().size());
+        assertEquals(12L, summary.getUnconfirmedReservations().get(0).getAccountId());
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    public void testFailedRecoveryReservationIsReportedAndTheRestStillSettle() throws IOException {
+        // Given: two paid purchases whose seats were refused, and a full log behind them
+        Path directory = folder.getRoot().toPath();
+        int segmentBytes = 4 * MappedPurchaseJournal.RECORD_LENGTH;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            for (long accountId = 20; accountId <= 21; accountId++) {
+                long purchaseId = journal.intent(accountId, 25, 1);
+                journal.paid(purchaseId);
+                journal.reservationStarted(purchaseId);
+                journal.reservationFailed(purchaseId);
+            }
+        }
+        doThrow(new IllegalStateException("Screening full")).when(seatReservationService).reserveSeat(20L, 1);
+
+        // When
+        RecoverySummary summary;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            summary = journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertEquals(1, summary.getSeatsReservedFor());
+        assertEquals(1, summary.getFailedReservations().size());
+        assertEquals(20L, summary.getFailedReservations().get(0).getAccountId());
+        verify(seatReservationService, times(1)).reserveSeat(21L, 1);
+        assertEquals(1, segmentFiles(directory).size());
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            assertTrue(reopened.pendingPurchases().isEmpty());
+        }
+    }
+
+    @Test
+    public void testLiveReservationFailureIsRefundedAndClosed() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        doThrow(new IllegalStateException("Screening full")).when(seatReservationService).reserveSeat(12L, 2);
+        doNothing().when(paymentService).refundPayment(12L, 50);
+
+        // When
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertThrows(IllegalStateException.class, () -> ticketService(journal).purchaseTickets(12L, adults(2)));
+        }
+
+        // Then
+        verify(paymentService, times(1)).refundPayment(12L, 50);
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            assertTrue(reopened.pendingPurchases().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSettledSegmentsAreDeletedWhileRunning() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        int segmentBytes = 4 * MappedPurchaseJournal.RECORD_LENGTH;
+
+        // When
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            TicketServiceImpl ticketService = ticketService(journal);
+            for (long accountId = 1; accountId <= 10; accountId++) {
+                ticketService.purchaseTickets(accountId, adults(1));
+            }
+        }
+
+        // Then: 40 records, 4 per segment, and only the active segment is left
+        assertEquals(1, segmentFiles(directory).size());
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            assertTrue(reopened.pendingPurchases().isEmpty());
+            assertEquals(11L, reopened.intent(11L, 25, 1));
+        }
+    }
+
+    @Test
+    public void testSegmentsRollAndAreTrimmedAfterRecovery() throws IOException {
+        // Given: an open purchase keeps every segment from its own onwards
+        Path directory = folder.getRoot().toPath();
+        int segmentBytes = 4 * MappedPurchaseJournal.RECORD_LENGTH;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            journal.intent(99L, 25, 1);
+            TicketServiceImpl ticketService = ticketService(journal);
+            for (long accountId = 1; accountId <= 10; accountId++) {
+                ticketService.purchaseTickets(accountId, adults(1));
+            }
+        }
+        assertEquals(11, segmentFiles(directory).size()); // 41 records, 4 per segment
+
+        // When
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, segmentBytes, COMMIT_INTERVAL)) {
+            assertEquals(1, journal.pendingPurchases().size());
+            journal.recover(seatReservationService);
+        }
+
+        // Then
+        assertEquals(1, segmentFiles(directory).size());
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        // Given
+        Path directory = folder.getRoot().toPath();
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            long purchaseId = journal.intent(5L, 25, 1);
+            journal.paid(purchaseId);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles(directory).get(0).toFile(), "rw")) {
+            file.seek(MappedPurchaseJournal.RECORD_LENGTH + 8); // Corrupt the PAID record
+            file.writeLong(-1L);
+        }
+
+        // When
+        List<PendingPurchase> pending;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_BYTES, COMMIT_INTERVAL)) {
+            pending = journal.pendingPurchases();
+        }
+
+        // Then
+        assertEquals(1, pending.size());
+        assertFalse(pending.get(0).isPaid());
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+}
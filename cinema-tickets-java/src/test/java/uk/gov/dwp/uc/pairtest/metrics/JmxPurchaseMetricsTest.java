@@ -0,0 +1,85 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class JmxPurchaseMetricsTest {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When: 1..1000 microseconds
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        // Then
+        assertEquals(1_000, histogram.count());
+        assertEquals(500_000, histogram.percentile(50), 500_000 * 0.07);
+        assertEquals(990_000, histogram.percentile(99), 990_000 * 0.07);
+        assertTrue(histogram.percentile(100) >= 1_000_000);
+    }
+
+    @Test
+    public void testHistogramBucketsCoverEveryValue() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+            assertTrue("Bucket for " + value + " ends at " + upper, upper >= value);
+            assertTrue(upper - value <= Math.max(1, value / 16));
+        }
+    }
+
+    @Test
+    public void testPurchasesAreTimedPerStageAndRejectionsCounted() {
+        // Given
+        JmxPurchaseMetrics metrics = new JmxPurchaseMetrics();
+        TicketServiceImpl ticketService = new TicketServiceImpl(
+                mock(TicketPaymentService.class), mock(SeatReservationService.class), metrics);
+
+        // When
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+        assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2)));
+        assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(0L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)));
+
+        // Then
+        assertEquals(3, metrics.latency(PurchaseStage.PURCHASE).count());
+        assertEquals(3, metrics.latency(PurchaseStage.VALIDATION).count());
+        assertEquals(1, metrics.latency(PurchaseStage.PAYMENT).count());
+        assertEquals(1, metrics.latency(PurchaseStage.RESERVATION).count());
+        assertEquals(1, metrics.rejections(InvalidPurchaseReason.NO_ADULT));
+        assertEquals(1, metrics.rejections(InvalidPurchaseReason.INVALID_ACCOUNT));
+        assertEquals(Long.valueOf(0), metrics.getInFlight().get("PURCHASE"));
+    }
+
+    @Test
+    public void testMetricsArePublishedOverJmx() throws Exception {
+        // Given
+        JmxPurchaseMetrics metrics = JmxPurchaseMetrics.register("jmx-test");
+        metrics.rejected(InvalidPurchaseReason.TOO_MANY_TICKETS);
+
+        // When
+        TabularData rejections = (TabularData) ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("uk.gov.dwp.uc.pairtest:type=PurchaseMetrics,name=jmx-test"), "Rejections");
+
+        // Then
+        assertEquals(1L, rejections.get(new Object[] {"TOO_MANY_TICKETS"}).get("value"));
+        assertThrows(IllegalStateException.class, () -> JmxPurchaseMetrics.register("jmx-test"));
+    }
+
+}
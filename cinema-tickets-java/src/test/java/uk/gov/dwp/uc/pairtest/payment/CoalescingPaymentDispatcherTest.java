@@ -0,0 +1,104 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import org.junit.After;
+import org.junit.Test;
+import thirdparty.paymentgateway.PaymentInstruction;
+import thirdparty.paymentgateway.PaymentOutcome;
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CoalescingPaymentDispatcherTest {
+
+    private static final long DECLINED_ACCOUNT = 13L;
+
+    // Records every batch and declines one account, like a card on a stop list.
+    private final List<List<PaymentInstruction>> batches = new CopyOnWriteArrayList<>();
+    private final TicketPaymentService gateway = new TicketPaymentService() {
+        @Override
+        public void makePayment(long accountId, int totalAmountToPay) {
+            fail("Dispatcher should only use the batch API");
+        }
+
+        @Override
+        public List<PaymentOutcome> makePayments(List<PaymentInstruction> instructions) {
+            batches.add(instructions);
+            List<PaymentOutcome> outcomes = new ArrayList<>();
+            for (PaymentInstruction instruction : instructions) {
+                outcomes.add(instruction.getAccountId() == DECLINED_ACCOUNT
+                        ? PaymentOutcome.failed(new IllegalStateException("Card declined"))
+                        : PaymentOutcome.paid());
+            }
+            return outcomes;
+        }
+    };
+
+    private final CoalescingPaymentDispatcher dispatcher =
+            new CoalescingPaymentDispatcher(gateway, 16, Duration.ofMillis(50));
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.close();
+    }
+
+    @Test
+    public void testConcurrentPaymentsShareOneRoundTrip() throws Exception {
+        // When
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            results.add(dispatcher.makePaymentAsync(accountId, 25));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+
+        // Then
+        int submitted = batches.stream().mapToInt(List::size).sum();
+        assertEquals(10, submitted);
+        assertTrue("Expected coalescing, got " + batches.size() + " batches", batches.size() < 10);
+    }
+
+    @Test
+    public void testEachCallerSeesOnlyItsOwnOutcome() throws Exception {
+        // When
+        CompletableFuture<Void> paid = dispatcher.makePaymentAsync(1L, 25);
+        CompletableFuture<Void> declined = dispatcher.makePaymentAsync(DECLINED_ACCOUNT, 25);
+
+        // Then
+        paid.get(1, TimeUnit.SECONDS);
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> dispatcher.makePayment(DECLINED_ACCOUNT, 40));
+        assertEquals("Card declined", exception.getMessage());
+        assertTrue(declined.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testBatchIsCappedAtMaximumSize() throws Exception {
+        // When
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (long accountId = 100; accountId < 140; accountId++) {
+            results.add(dispatcher.makePaymentAsync(accountId, 15));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+
+        // Then
+        for (List<PaymentInstruction> batch : batches) {
+            assertTrue(batch.size() <= 16);
+        }
+    }
+
+    @Test
+    public void testPaymentsAfterCloseAreRejected() throws InterruptedException {
+        // Given
+        dispatcher.close();
+
+        // Then
+        assertTrue(dispatcher.makePaymentAsync(1L, 25).isCompletedExceptionally());
+    }
+
+}
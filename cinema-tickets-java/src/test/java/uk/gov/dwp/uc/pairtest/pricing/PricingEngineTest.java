@@ -0,0 +1,107 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class PricingEngineTest {
+
+    private static final PriceTable MATINEE = new PriceTable(18, 10, 0);
+    private static final PriceTable PREMIERE = new PriceTable(40, 30, 5);
+    private static final PriceTable HALF_PRICE = new PriceTable(12, 7, 0);
+
+    private static Clock at(String instant) {
+        return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testStandardPricesMatchTheOriginalConstants() {
+        PriceTable prices = PricingEngine.standard().currentPrices();
+
+        assertEquals(25, prices.price(TicketTypeRequest.Type.ADULT));
+        assertEquals(15, prices.price(TicketTypeRequest.Type.CHILD));
+        assertEquals(0, prices.price(TicketTypeRequest.Type.INFANT));
+        assertEquals(2 * 25 + 3 * 15, prices.total(2, 3, 1));
+    }
+
+    @Test
+    public void testTimeOfDayBandsApplyWithinTheirHours() {
+        // Given
+        PriceSchedule schedule = PriceSchedule.builder().timeOfDay(10, 16, MATINEE).build();
+
+        // Then
+        assertEquals(MATINEE, new PricingEngine(schedule, at("2026-10-18T10:00:00Z")).currentPrices());
+        assertEquals(MATINEE, new PricingEngine(schedule, at("2026-10-18T15:59:59Z")).currentPrices());
+        assertEquals(PriceTable.STANDARD, new PricingEngine(schedule, at("2026-10-18T16:00:00Z")).currentPrices());
+    }
+
+    @Test
+    public void testTimeOfDayFollowsTheClockZone() {
+        // Given: 09:30 UTC is 10:30 in London during summer time
+        PriceSchedule schedule = PriceSchedule.builder().timeOfDay(10, 16, MATINEE).build();
+        Clock london = Clock.fixed(Instant.parse("2026-07-01T09:30:00Z"), ZoneId.of("Europe/London"));
+
+        // Then
+        assertEquals(MATINEE, new PricingEngine(schedule, london).currentPrices());
+    }
+
+    @Test
+    public void testPrecedenceIsPromotionThenScreeningThenTimeOfDay() {
+        // Given
+        PriceSchedule schedule = PriceSchedule.builder()
+                .timeOfDay(10, 16, MATINEE)
+                .screening(7, PREMIERE)
+                .promotion(Instant.parse("2026-10-18T12:00:00Z"), Instant.parse("2026-10-18T13:00:00Z"), HALF_PRICE)
+                .build();
+
+        // Then
+        PricingEngine morning = new PricingEngine(schedule, at("2026-10-18T11:00:00Z"));
+        assertEquals(PREMIERE, morning.currentPrices(7));
+        assertEquals(MATINEE, morning.currentPrices(3));
+        assertEquals(MATINEE, morning.currentPrices());
+
+        PricingEngine promotionHour = new PricingEngine(schedule, at("2026-10-18T12:30:00Z"));
+        assertEquals(HALF_PRICE, promotionHour.currentPrices(7));
+        assertEquals(HALF_PRICE, promotionHour.currentPrices());
+    }
+
+    @Test
+    public void testPublishedScheduleIsChargedWithoutRestart() {
+        // Given
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        PricingEngine pricing = new PricingEngine(PriceSchedule.builder().build(), at("2026-10-18T20:00:00Z"));
+        TicketServiceImpl ticketService = new TicketServiceImpl(
+                paymentService, mock(SeatReservationService.class), pricing, PurchaseMetrics.NOOP);
+        TicketTypeRequest twoAdults = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+        // When
+        ticketService.purchaseTickets(1L, twoAdults);
+        pricing.publish(PriceSchedule.builder().standard(PREMIERE).build());
+        ticketService.purchaseTickets(1L, twoAdults);
+
+        // Then
+        verify(paymentService).makePayment(1L, 50);
+        verify(paymentService).makePayment(1L, 80);
+    }
+
+    @Test
+    public void testWrappingBandCoversMidnight() {
+        PriceSchedule schedule = PriceSchedule.builder().timeOfDay(22, 2, MATINEE).build();
+
+        assertEquals(MATINEE, new PricingEngine(schedule, at("2026-10-18T23:00:00Z")).currentPrices());
+        assertEquals(MATINEE, new PricingEngine(schedule, at("2026-10-18T01:00:00Z")).currentPrices());
+        assertEquals(PriceTable.STANDARD, new PricingEngine(schedule, at("2026-10-18T02:00:00Z")).currentPrices());
+    }
+
+}
@@ -0,0 +1,100 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("seats", 3, Duration.ofSeconds(10), 2, now::get);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailuresOnly() {
+        // Given
+        fail(2);
+        breaker.onSuccess(breaker.tryAcquire());
+
+        // When
+        fail(2);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testHalfOpenProbesCloseTheBreaker() {
+        // Given
+        fail(3);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // When
+        CircuitBreaker.Phase first = breaker.tryAcquire();
+        CircuitBreaker.Phase second = breaker.tryAcquire();
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(breaker.tryAcquire()); // Only two probes at a time
+
+        breaker.onSuccess(first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testFailedProbeReopensAndLateOutcomesAreIgnored() {
+        // Given
+        CircuitBreaker.Phase slowCall = breaker.tryAcquire();
+        fail(3);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        CircuitBreaker.Phase probe = breaker.tryAcquire();
+
+        // When
+        breaker.onFailure(slowCall); // Admitted before the breaker opened
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(probe);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testLateFailuresDoNotCountAgainstTheNextClosedPhase() {
+        // Given: two calls admitted before the breaker opened, then a recovery that closes it again
+        CircuitBreaker.Phase slowCall = breaker.tryAcquire();
+        CircuitBreaker.Phase otherSlowCall = breaker.tryAcquire();
+        fail(3);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+
+        // When
+        breaker.onFailure(slowCall);
+        breaker.onFailure(otherSlowCall);
+        fail(2);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+}
@@ -0,0 +1,157 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.After;
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DependencyGuardTest {
+
+    private static final TicketTypeRequest ONE_ADULT = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+    private final CountDownLatch seatServiceRecovers = new CountDownLatch(1);
+    private final TicketPaymentService gateway = spy(TicketPaymentService.class);
+    private final SeatReservationService seatService = spy(SeatReservationService.class);
+    private final DependencyGuard paymentGuard = new DependencyGuard("payments",
+            new CircuitBreaker("payments", 3, Duration.ofSeconds(30), 1), 4, Duration.ofSeconds(5));
+    private final DependencyGuard seatGuard = new DependencyGuard("seats",
+            new CircuitBreaker("seats", 2, Duration.ofSeconds(30), 1), 2, Duration.ofMillis(50));
+    private final ResilientTicketPaymentService payments = new ResilientTicketPaymentService(gateway, paymentGuard);
+    private final ResilientSeatReservationService seats = new ResilientSeatReservationService(seatService, seatGuard);
+    private final TicketServiceImpl ticketService = new TicketServiceImpl(payments, seats);
+
+    @After
+    public void tearDown() {
+        seatServiceRecovers.countDown();
+        paymentGuard.close();
+        seatGuard.close();
+    }
+
+    @Test
+    public void testSlowSeatServiceTimesOutThenFailsFast() throws InterruptedException {
+        // Given
+        doAnswer(invocation -> {
+            seatServiceRecovers.await();
+            return null;
+        }).when(seatService).reserveSeat(anyLong(), anyInt());
+
+        // When two purchases time out waiting for seats
+        DependencyUnavailableException first = assertThrows(DependencyUnavailableException.class,
+                () -> ticketService.purchaseTickets(1L, ONE_ADULT));
+        DependencyUnavailableException second = assertThrows(DependencyUnavailableException.class,
+                () -> ticketService.purchaseTickets(2L, ONE_ADULT));
+
+        // Then the seat breaker opens and the next purchase is refused without waiting
+        assertEquals(DependencyUnavailableException.Reason.TIMED_OUT, first.getReason());
+        assertEquals(DependencyUnavailableException.Reason.TIMED_OUT, second.getReason());
+        assertEquals(2, seatGuard.inFlight()); // Both stuck calls still hold the bulkhead
+        assertEquals(CircuitBreaker.State.OPEN, seats.getCircuitState());
+        assertEquals(CircuitBreaker.State.CLOSED, payments.getCircuitState());
+
+        long startedAt = System.nanoTime();
+        DependencyUnavailableException third = assertThrows(DependencyUnavailableException.class,
+                () -> seats.reserveSeat(3L, 1));
+        assertTrue(System.nanoTime() - startedAt < Duration.ofMillis(50).toNanos());
+        assertEquals(DependencyUnavailableException.Reason.BULKHEAD_FULL, third.getReason());
+
+        seatServiceRecovers.countDown();
+        while (seatGuard.inFlight() > 0) {
+            Thread.sleep(1);
+        }
+        DependencyUnavailableException fourth = assertThrows(DependencyUnavailableException.class,
+                () -> seats.reserveSeat(4L, 1));
+        assertEquals(DependencyUnavailableException.Reason.CIRCUIT_OPEN, fourth.getReason());
+    }
+
+    @Test
+    public void testDependencyFailuresPassThroughUnchanged() {
+        // Given
+        IllegalStateException declined = new IllegalStateException("Card declined");
+        doThrow(declined).when(gateway).makePayment(7L, 25);
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(7L, ONE_ADULT));
+
+        // Then
+        assertSame(declined, thrown);
+        verify(seatService, never()).reserveSeat(anyLong(), anyInt());
+        assertEquals(0, paymentGuard.inFlight());
+    }
+
+    @Test
+    public void testBusinessFailuresDoNotOpenTheBreaker() {
+        // Given: the gateway answers, but keeps declining
+        doThrow(new IllegalStateException("Card declined")).when(gateway).makePayment(anyLong(), anyInt());
+
+        // When
+        for (long accountId = 1; accountId <= 5; accountId++) {
+            long account = accountId;
+            assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(account, ONE_ADULT));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, payments.getCircuitState());
+    }
+
+    @Test
+    public void testRefundGoesThroughWhileTheBreakerIsOpen() {
+        // Given: the gateway is unreachable for long enough to open its breaker
+        doThrow(new UncheckedIOException(new IOException("Connection refused")))
+                .when(gateway).makePayment(anyLong(), anyInt());
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UncheckedIOException.class, () -> payments.makePayment(1L, 25));
+        }
+        doNothing().when(gateway).refundPayment(anyLong(), anyInt());
+
+        // When
+        payments.refundPayment(2L, 25);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, payments.getCircuitState());
+        verify(gateway).refundPayment(2L, 25);
+    }
+
+    @Test
+    public void testTimedOutPaymentIsLeftOpen() {
+        // Given: a gateway that takes longer to answer than the guard waits
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        when(journal.commit()).thenReturn(CompletableFuture.completedFuture(null));
+        doAnswer(invocation -> {
+            seatServiceRecovers.await();
+            return null;
+        }).when(gateway).makePayment(3L, 25);
+        try (DependencyGuard slowGuard = new DependencyGuard("payments",
+                new CircuitBreaker("payments", 3, Duration.ofSeconds(30), 1), 4, Duration.ofMillis(50))) {
+            TicketServiceImpl slowPayments = new TicketServiceImpl(
+                    new ResilientTicketPaymentService(gateway, slowGuard), seats, PricingEngine.standard(),
+                    PurchaseMetrics.NOOP, journal);
+
+            // When
+            DependencyUnavailableException thrown = assertThrows(DependencyUnavailableException.class,
+                    () -> slowPayments.purchaseTickets(3L, ONE_ADULT));
+
+            // Then: the money may have been taken, so the purchase is neither refunded blindly nor settled as unpaid
+            assertEquals(DependencyUnavailableException.Reason.TIMED_OUT, thrown.getReason());
+            verify(gateway, never()).refundPayment(anyLong(), anyInt());
+            verify(journal, never()).compensated(anyLong());
+            verify(journal, never()).paymentFailed(anyLong());
+            verify(seatService, never()).reserveSeat(anyLong(), anyInt());
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AvailabilityBoardTest {
+
+    @Test
+    public void testSnapshotOnlyMovesOnPublish() {
+        // Given
+        AvailabilityBoard board = new AvailabilityBoard(8);
+        SeatInventory inventory = new SeatInventory(board);
+        int screening = inventory.addScreening(2, 10);
+        AvailabilitySnapshot before = board.snapshot();
+
+        // When
+        SeatBlock block = inventory.screening(screening).claim(4);
+        inventory.screening(screening).claim(3);
+
+        // Then
+        assertEquals(20, board.remainingSeats(screening));
+        long version = board.publish();
+        assertEquals(before.getVersion() + 1, version);
+        assertEquals(13, board.remainingSeats(screening));
+        assertEquals(20, before.remainingSeats(screening)); // Old snapshots never change
+
+        inventory.screening(screening).release(block);
+        board.publish();
+        assertEquals(17, board.remainingSeats(screening));
+        assertEquals(version + 1, board.publish()); // Nothing new, so no new version
+    }
+
+    @Test
+    public void testSubscriberKeepsAnExactCopyFromDeltas() throws InterruptedException {
+        // Given
+        AvailabilityBoard board = new AvailabilityBoard(8);
+        SeatInventory inventory = new SeatInventory(board);
+        for (int i = 0; i < 4; i++) {
+            inventory.addScreening(10, 20);
+        }
+        AvailabilitySnapshot baseline = board.subscribe(delta -> { });
+        int[] copy = new int[4];
+        for (int i = 0; i < 4; i++) {
+            copy[i] = baseline.remainingSeats(i);
+        }
+        List<AvailabilityDelta> deltas = new ArrayList<>();
+        board.subscribe(deltas::add);
+        ExecutorService buyers = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(400);
+
+        // When
+        for (int i = 0; i < 400; i++) {
+            int screening = i % 4;
+            buyers.execute(() -> {
+                inventory.screening(screening).claim(1 + screening);
+                done.countDown();
+            });
+            if (i % 50 == 0) {
+                board.publish();
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        buyers.shutdown();
+        board.publish();
+
+        // Then
+        long version = baseline.getVersion();
+        for (AvailabilityDelta delta : deltas) {
+            assertEquals(version, delta.getFromVersion());
+            version = delta.getToVersion();
+            for (int i = 0; i < delta.size(); i++) {
+                copy[delta.screeningId(i)] = delta.remainingSeats(i);
+            }
+        }
+        assertEquals(board.snapshot().getVersion(), version);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(inventory.screening(i).availableSeats(), copy[i]);
+            assertEquals(inventory.screening(i).availableSeats(), board.remainingSeats(i));
+        }
+    }
+
+    @Test
+    public void testScreeningsAreCheckedWhenAddedAndKeepEarlierChanges() {
+        // Given
+        AvailabilityBoard board = new AvailabilityBoard(4);
+        board.seatsChanged(3, -2); // Reported before the add was published
+
+        // When
+        board.screeningAdded(3, 10);
+
+        // Then
+        assertEquals(8, board.remainingSeats(3));
+        assertEquals(board.snapshot().getVersion(), board.publish()); // Nothing left pending
+        assertThrows(IllegalArgumentException.class, () -> new ScreeningSeatMap(4, 1, 10, board));
+        assertEquals(1, board.snapshot().getVersion());
+    }
+
+}
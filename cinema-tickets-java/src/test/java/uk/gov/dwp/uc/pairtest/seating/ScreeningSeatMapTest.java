@@ -0,0 +1,171 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.resilience.CircuitBreaker;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyGuard;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientSeatReservationService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ScreeningSeatMapTest {
+
+    @Test
+    public void testBlocksAreContiguousAndFillFrontRowsFirst() {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 3, 10);
+
+        // When
+        SeatBlock first = screening.claim(6);
+        SeatBlock second = screening.claim(6);
+        SeatBlock third = screening.claim(4);
+
+        // Then
+        assertEquals(0, first.getRow());
+        assertEquals(0, first.getFirstSeat());
+        assertEquals(1, second.getRow()); // Only 4 seats left in row 0
+        assertEquals(0, third.getRow());
+        assertEquals(6, third.getFirstSeat());
+        assertEquals(14, screening.availableSeats());
+    }
+
+    @Test
+    public void testSoldOutAndReleasedSeatsCanBeReclaimed() {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 2, 5);
+        SeatBlock front = screening.claim(5);
+        screening.claim(5);
+
+        // Then
+        assertNull(screening.claim(1));
+        assertFalse(screening.hasContiguous(1));
+
+        // When
+        screening.release(front);
+
+        // Then
+        assertTrue(screening.hasContiguous(5));
+        assertEquals(0, screening.claim(5).getRow());
+    }
+
+    @Test
+    public void testOrderWiderThanAnyGapIsRefusedEvenWithEnoughSeatsInTotal() {
+        // Given: seats 0-1 and 4-5 free, 2-3 taken
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 1, 6);
+        SeatBlock left = screening.claim(2);
+        screening.claim(2);
+        screening.release(left);
+
+        // Then
+        assertEquals(4, screening.availableSeats());
+        assertFalse(screening.hasContiguous(3));
+        assertNull(screening.claim(3));
+    }
+
+    @Test
+    public void testConcurrentClaimsNeverOverlap() throws InterruptedException {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 40, 64);
+        ConcurrentLinkedQueue<SeatBlock> claimed = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seats = 1 + t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                SeatBlock block;
+                while ((block = screening.claim(seats)) != null) {
+                    claimed.add(block);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // When
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        long[] seen = new long[40];
+        int total = 0;
+        for (SeatBlock block : claimed) {
+            long bits = ((1L << block.getSeats()) - 1) << block.getFirstSeat();
+            assertEquals("Overlapping block " + block, 0, seen[block.getRow()] & bits);
+            seen[block.getRow()] |= bits;
+            total += block.getSeats();
+        }
+        assertEquals(screening.getCapacity() - screening.availableSeats(), total);
+    }
+
+    @Test
+    public void testSoldOutOrderIsRejectedBeforePayment() {
+        // Given
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        InMemorySeatReservationService seats = new InMemorySeatReservationService(new ScreeningSeatMap(0, 1, 4));
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seats);
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3));
+
+        // When
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.SOLD_OUT, exception.getReason());
+        verify(paymentService, times(1)).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testOrderWiderThanARowIsInvalidEvenBehindADecorator() {
+        // Given: an empty screening of 20-seat rows, behind the resilience decorator
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        InMemorySeatReservationService seats = new InMemorySeatReservationService(new ScreeningSeatMap(0, 5, 20));
+        try (DependencyGuard guard = new DependencyGuard("seats",
+                new CircuitBreaker("seats", 3, Duration.ofSeconds(30), 1), 4, Duration.ofSeconds(5))) {
+            TicketServiceImpl ticketService = new TicketServiceImpl(paymentService,
+                    new ResilientSeatReservationService(seats, guard));
+
+            // When
+            InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                    () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 21)));
+
+            // Then
+            assertEquals(InvalidPurchaseReason.INVALID_REQUEST, exception.getReason());
+            verifyNoInteractions(paymentService);
+        }
+    }
+
+    @Test
+    public void testReleasedReservationGoesBackToTheScreening() {
+        // Given
+        InMemorySeatReservationService seats = new InMemorySeatReservationService(new ScreeningSeatMap(0, 1, 6));
+        seats.reserveSeat(1L, 4);
+        seats.reserveSeat(2L, 2);
+
+        // When
+        seats.releaseSeat(1L, 4);
+
+        // Then
+        assertTrue(seats.canAllocate(4));
+        assertThrows(IllegalStateException.class, () -> seats.releaseSeat(1L, 4));
+        assertThrows(IllegalStateException.class, () -> seats.releaseSeat(2L, 3));
+    }
+
+}
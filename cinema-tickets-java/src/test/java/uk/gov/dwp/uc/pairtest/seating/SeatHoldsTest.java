@@ -0,0 +1,126 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+import uk.gov.dwp.uc.pairtest.resilience.CircuitBreaker;
+import uk.gov.dwp.uc.pairtest.resilience.DependencyGuard;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientSeatReservationService;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SeatHoldsTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private InMemorySeatReservationService seats(ScreeningSeatMap screening) {
+        return new InMemorySeatReservationService(screening,
+                new SeatHolds<>(screening::release, SeatHolds.DEFAULT_TICK, now::get));
+    }
+
+    @Test
+    public void testExpiredHoldGivesItsSeatsBack() {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 1, 4);
+        InMemorySeatReservationService seats = seats(screening);
+        long token = seats.holdSeats(1L, 4, Duration.ofMinutes(10));
+        assertFalse(seats.canAllocate(1));
+
+        // When
+        now.addAndGet(Duration.ofMinutes(10).plusMillis(10).toNanos());
+
+        // Then
+        assertTrue(seats.canAllocate(4));
+        assertEquals(0, seats.getHolds().size());
+        assertThrows(SeatHoldExpiredException.class, () -> seats.confirmHold(1L, token, 4));
+    }
+
+    @Test
+    public void testConfirmedHoldKeepsItsSeats() {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 1, 4);
+        InMemorySeatReservationService seats = seats(screening);
+        long token = seats.holdSeats(1L, 3, Duration.ofMinutes(10));
+
+        // When
+        seats.confirmHold(1L, token, 3);
+        now.addAndGet(Duration.ofHours(1).toNanos());
+
+        // Then
+        assertEquals(1, screening.availableSeats());
+        assertThrows(SeatHoldExpiredException.class, () -> seats.confirmHold(1L, token, 3));
+    }
+
+    @Test
+    public void testTokenOfAReleasedHoldDoesNotMatchTheNextHoldInItsSlot() {
+        // Given
+        ScreeningSeatMap screening = new ScreeningSeatMap(0, 1, 8);
+        InMemorySeatReservationService seats = seats(screening);
+        long released = seats.holdSeats(1L, 2, Duration.ofMinutes(10));
+        seats.releaseHold(1L, released);
+
+        // When
+        long next = seats.holdSeats(1L, 2, Duration.ofMinutes(10));
+
+        // Then
+        assertNotEquals(released, next);
+        assertThrows(SeatHoldExpiredException.class, () -> seats.confirmHold(1L, released, 2));
+        assertThrows(SeatHoldExpiredException.class, () -> seats.confirmHold(2L, next, 2));
+        seats.confirmHold(1L, next, 2);
+        assertEquals(6, screening.availableSeats());
+    }
+
+    @Test
+    public void testPurchaseConfirmsHoldAndRefundsWhenHoldHasExpired() {
+        // Given
+        TicketPaymentService paymentService = spy(TicketPaymentService.class);
+        doNothing().when(paymentService).refundPayment(anyLong(), anyInt());
+        InMemorySeatReservationService seats = seats(new ScreeningSeatMap(0, 1, 4));
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seats);
+        TicketTypeRequest twoAdults = TicketTypeRequest.of(TicketTypeRequest.Type.ADULT, 2);
+        long kept = ticketService.holdSeats(1L, Duration.ofMinutes(10), twoAdults);
+        long lapsed = ticketService.holdSeats(2L, Duration.ofMinutes(1), twoAdults);
+
+        // When
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        ticketService.purchaseTickets(1L, kept, twoAdults);
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(2L, lapsed, twoAdults));
+
+        // Then
+        assertEquals(InvalidPurchaseReason.HOLD_EXPIRED, exception.getReason());
+        verify(paymentService).makePayment(1L, 50);
+        verify(paymentService).makePayment(2L, 50);
+        verify(paymentService).refundPayment(2L, 50);
+        assertTrue(seats.canAllocate(2));
+    }
+
+    @Test
+    public void testHoldsPassThroughTheDecorators() throws InterruptedException {
+        // Given
+        InMemorySeatReservationService backend = seats(new ScreeningSeatMap(0, 1, 4));
+        try (DependencyGuard guard = new DependencyGuard("seats",
+                new CircuitBreaker("seats", 3, Duration.ofSeconds(30), 1), 4, Duration.ofSeconds(5));
+             SeatReservationAggregator aggregator = new SeatReservationAggregator(
+                     new ResilientSeatReservationService(backend, guard), 8, Duration.ofMillis(1))) {
+
+            // When
+            long released = aggregator.holdSeats(1L, 4, Duration.ofMinutes(10));
+            aggregator.releaseHold(1L, released);
+            long kept = aggregator.holdSeats(2L, 4, Duration.ofMinutes(10));
+            aggregator.confirmHold(2L, kept, 4);
+
+            // Then
+            assertThrows(SeatHoldExpiredException.class, () -> aggregator.confirmHold(1L, released, 4));
+            assertFalse(backend.canAllocate(1));
+        }
+    }
+
+}
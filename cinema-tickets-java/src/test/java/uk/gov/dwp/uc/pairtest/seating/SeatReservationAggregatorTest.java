@@ -0,0 +1,122 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import org.junit.After;
+import org.junit.Test;
+import thirdparty.seatbooking.ReservationOutcome;
+import thirdparty.seatbooking.SeatRequest;
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SeatReservationAggregatorTest {
+
+    private static final long SOLD_OUT_ACCOUNT = 99L;
+
+    private final List<SeatRequest> sent = new CopyOnWriteArrayList<>();
+    private final SeatReservationService backend = new SeatReservationService() {
+        @Override
+        public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+            fail("Aggregator should only use the bulk API");
+        }
+
+        @Override
+        public List<ReservationOutcome> reserveSeats(List<SeatRequest> requests) {
+            sent.addAll(requests);
+            List<ReservationOutcome> outcomes = new ArrayList<>();
+            for (SeatRequest request : requests) {
+                outcomes.add(request.getAccountId() == SOLD_OUT_ACCOUNT
+                        ? ReservationOutcome.failed(new IllegalStateException("Sold out"))
+                        : ReservationOutcome.reserved());
+            }
+            return outcomes;
+        }
+    };
+
+    private SeatReservationAggregator aggregator;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        aggregator.close();
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> results) throws Exception {
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCallsForOneAccountStaySeparateRequests() throws Exception {
+        // Given
+        aggregator = new SeatReservationAggregator(backend, 32, Duration.ofMillis(50));
+
+        // When
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(aggregator.reserveSeatAsync(1L, 2));
+        results.add(aggregator.reserveSeatAsync(2L, 4));
+        results.add(aggregator.reserveSeatAsync(1L, 3));
+        awaitAll(results);
+
+        // Then: one round trip, one request per order
+        assertEquals(3, sent.size());
+        assertEquals(1L, sent.get(0).getAccountId());
+        assertEquals(2, sent.get(0).getTotalSeatsToAllocate());
+        assertEquals(4, sent.get(1).getTotalSeatsToAllocate());
+        assertEquals(3, sent.get(2).getTotalSeatsToAllocate());
+    }
+
+    @Test
+    public void testIdenticalCallsAreSeparateOrders() throws Exception {
+        // Given
+        aggregator = new SeatReservationAggregator(backend, 32, Duration.ofMillis(50));
+
+        // When
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(aggregator.reserveSeatAsync(1L, 2));
+        results.add(aggregator.reserveSeatAsync(1L, 2));
+        awaitAll(results);
+
+        // Then: both orders get their seats
+        assertEquals(2, sent.size());
+        assertEquals(2, sent.get(1).getTotalSeatsToAllocate());
+    }
+
+    @Test
+    public void testOneOfTwoBatchedOrdersCanBeReleased() throws Exception {
+        // Given: a row of 5, filled by two orders from one account in the same window
+        InMemorySeatReservationService seats = new InMemorySeatReservationService(new ScreeningSeatMap(0, 1, 5));
+        aggregator = new SeatReservationAggregator(seats, 32, Duration.ofMillis(50));
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(aggregator.reserveSeatAsync(1L, 2));
+        results.add(aggregator.reserveSeatAsync(1L, 3));
+        awaitAll(results);
+
+        // When
+        aggregator.releaseSeat(1L, 2);
+
+        // Then
+        assertTrue(seats.canAllocate(2));
+        assertFalse(seats.canAllocate(3));
+    }
+
+    @Test
+    public void testFailureReachesOnlyTheAffectedCallers() throws Exception {
+        // Given
+        aggregator = new SeatReservationAggregator(backend, 32, Duration.ofMillis(50));
+
+        // When
+        CompletableFuture<Void> reserved = aggregator.reserveSeatAsync(1L, 2);
+        CompletableFuture<Void> soldOut = aggregator.reserveSeatAsync(SOLD_OUT_ACCOUNT, 2);
+
+        // Then
+        reserved.get(1, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> aggregator.reserveSeat(SOLD_OUT_ACCOUNT, 1));
+        assertTrue(soldOut.isCompletedExceptionally());
+    }
+
+}
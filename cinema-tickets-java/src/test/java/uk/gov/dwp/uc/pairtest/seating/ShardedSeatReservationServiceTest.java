@@ -0,0 +1,223 @@
+package uk.gov.dwp.uc.pairtest.seating;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ShardedSeatReservationServiceTest {
+
+    private static final int SHARDS = 4;
+
+    private final EventLoopSeatShard[] localShards = new EventLoopSeatShard[SHARDS];
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (EventLoopSeatShard shard : localShards) {
+            if (shard != null) {
+                shard.close();
+            }
+        }
+    }
+
+    private SeatShard[] startLocalShards() {
+        for (int i = 0; i < SHARDS; i++) {
+            localShards[i] = new EventLoopSeatShard(i, SHARDS, 1024);
+        }
+        return localShards;
+    }
+
+    private static void serveSecondConnection(ServerSocket server, CountDownLatch done) throws IOException {
+        try (Socket second = server.accept()) {
+            DataInputStream secondIn = new DataInputStream(second.getInputStream());
+            secondIn.readFully(new byte[9]);
+            DataOutputStream secondOut = new DataOutputStream(second.getOutputStream());
+            secondOut.writeByte(ShardProtocol.OK);
+            secondOut.writeInt(2);
+            secondOut.writeInt(7);
+            secondOut.flush();
+            done.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testReservationsAreRoutedToTheOwningShard() {
+        // Given: account n books screening n
+        ShardedSeatReservationService service =
+                new ShardedSeatReservationService(startLocalShards(), accountId -> (int) accountId);
+        for (int screeningId = 0; screeningId < 8; screeningId++) {
+            service.addScreening(screeningId, 1, 10);
+        }
+
+        // When
+        for (long accountId = 0; accountId < 8; accountId++) {
+            service.reserveSeat(accountId, 10);
+        }
+
+        // Then: every screening filled independently
+        for (long accountId = 0; accountId < 8; accountId++) {
+            long account = accountId;
+            assertThrows(SeatsUnavailableException.class, () -> service.reserveSeat(account, 1));
+        }
+    }
+
+    @Test
+    public void testReleasedBlockGoesBackToItsScreening() throws Exception {
+        // Given
+        ShardedSeatReservationService service =
+                new ShardedSeatReservationService(startLocalShards(), accountId -> 5);
+        service.addScreening(5, 1, 4);
+        SeatBlock block = service.reserve(5, 4).get(1, TimeUnit.SECONDS);
+
+        // When
+        service.release(block).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(block.getFirstSeat(), service.reserve(5, 4).get(1, TimeUnit.SECONDS).getFirstSeat());
+    }
+
+    @Test
+    public void testShardServedFromAnotherJvmOverLoopback() throws Exception {
+        // Given: shard 1 of 2 is hosted behind a server, as another JVM would host it
+        EventLoopSeatShard hosted = new EventLoopSeatShard(1, 2, 1024);
+        localShards[0] = new EventLoopSeatShard(0, 2, 1024);
+        localShards[1] = hosted;
+        try (SeatShardServer server = new SeatShardServer(hosted, 0);
+             RemoteSeatShard remote = new RemoteSeatShard(server.getPort())) {
+            ShardedSeatReservationService service = new ShardedSeatReservationService(
+                    new SeatShard[] {localShards[0], remote}, accountId -> 3);
+            service.addScreening(3, 2, 5);
+
+            // When
+            SeatBlock first = service.reserve(3, 5).get(1, TimeUnit.SECONDS);
+            SeatBlock second = service.reserve(3, 5).get(1, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(0, first.getRow());
+            assertEquals(1, second.getRow());
+            assertThrows(SeatsUnavailableException.class, () -> service.reserveSeat(42L, 1));
+            assertThrows(IllegalStateException.class, () -> service.addScreening(1, 0, 5)); // Error crosses the wire
+        }
+    }
+
+    @Test
+    public void testRemoteShardReconnectsAfterATruncatedReply() throws Exception {
+        // Given: a server whose first connection answers half a reservation and then goes quiet
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            CountDownLatch done = new CountDownLatch(1);
+            Thread fake = new Thread(() -> {
+                try (Socket first = server.accept()) {
+                    DataInputStream firstIn = new DataInputStream(first.getInputStream());
+                    firstIn.readFully(new byte[9]); // RESERVE, screeningId, seats
+                    DataOutputStream firstOut = new DataOutputStream(first.getOutputStream());
+                    firstOut.writeByte(ShardProtocol.OK);
+                    firstOut.writeShort(0); // Half of the row
+                    firstOut.flush();
+                    serveSecondConnection(server, done); // Holds the first open until the client gives up on it
+                } catch (IOException e) {
+                    // Test is over
+                }
+            });
+            fake.setDaemon(true);
+            fake.start();
+
+            try (RemoteSeatShard remote = new RemoteSeatShard(server.getLocalPort(), Duration.ofMillis(200))) {
+                // When
+                ExecutionException timedOut = assertThrows(ExecutionException.class,
+                        () -> remote.reserve(1, 3).get(5, TimeUnit.SECONDS));
+                SeatBlock block = remote.reserve(1, 3).get(5, TimeUnit.SECONDS);
+
+                // Then: the stale bytes were not read as part of the second reply
+                assertTrue(timedOut.getCause() instanceof UncheckedIOException);
+                assertEquals(2, block.getRow());
+                assertEquals(7, block.getFirstSeat());
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeScreeningIdIsRejected() {
+        // Given: -1 would otherwise share slot 0 with screening 0
+        localShards[0] = new EventLoopSeatShard(0, 1, 16);
+
+        // When
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> localShards[0].addScreening(-1, 1, 4).get(1, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testReleaseSeatGivesBackTheAccountsBlock() throws Exception {
+        // Given
+        ShardedSeatReservationService service =
+                new ShardedSeatReservationService(startLocalShards(), accountId -> 6);
+        service.addScreening(6, 1, 4);
+        service.reserveSeat(1L, 4);
+
+        // When
+        service.releaseSeat(1L, 4);
+
+        // Then
+        assertEquals(0, service.reserve(6, 4).get(1, TimeUnit.SECONDS).getFirstSeat());
+        assertThrows(IllegalStateException.class, () -> service.releaseSeat(1L, 4));
+    }
+
+    @Test
+    public void testHeldSeatsAreConfirmedOrGivenBack() throws Exception {
+        // Given
+        ShardedSeatReservationService service =
+                new ShardedSeatReservationService(startLocalShards(), accountId -> 2);
+        service.addScreening(2, 1, 4);
+        long released = service.holdSeats(1L, 4, Duration.ofMinutes(10));
+
+        // When
+        service.releaseHold(1L, released);
+        long kept = service.holdSeats(2L, 4, Duration.ofMinutes(10));
+        service.confirmHold(2L, kept, 4);
+
+        // Then
+        assertThrows(SeatHoldExpiredException.class, () -> service.confirmHold(1L, released, 4));
+        assertThrows(SeatsUnavailableException.class, () -> service.reserveSeat(3L, 1));
+        service.releaseSeat(2L, 4);
+        assertEquals(0, service.reserve(2, 4).get(1, TimeUnit.SECONDS).getFirstSeat());
+    }
+
+    @Test
+    public void testFinishedScreeningForgetsItsBlocksOnly() {
+        // Given: account n books screening n % 2, the same size twice over for account 0
+        ShardedSeatReservationService service =
+                new ShardedSeatReservationService(startLocalShards(), accountId -> (int) (accountId % 2));
+        service.addScreening(0, 1, 10);
+        service.addScreening(1, 1, 10);
+        service.reserveSeat(0L, 2);
+        service.reserveSeat(0L, 2);
+        service.reserveSeat(1L, 2);
+
+        // When
+        service.finishScreening(0);
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> service.releaseSeat(0L, 2));
+        service.releaseSeat(1L, 2);
+        assertThrows(IllegalStateException.class, () -> service.releaseSeat(1L, 2));
+    }
+
+}
@@ -0,0 +1,67 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testEntriesExpireAfterTtl() {
+        // Given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(30), 1, now::get);
+        cache.computeIfAbsent("a", k -> "first");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+
+        // Then
+        assertEquals("first", cache.computeIfAbsent("a", k -> "second"));
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("second", cache.computeIfAbsent("a", k -> "second"));
+    }
+
+    @Test
+    public void testOldestEntriesAreEvictedWhenFull() {
+        // Given
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(3, Duration.ofMinutes(1), 1, now::get);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+
+        // Then
+        assertEquals(3, cache.size());
+        assertNull(cache.getIfPresent(0));
+        assertNull(cache.getIfPresent(1));
+        assertEquals(Integer.valueOf(4), cache.getIfPresent(4));
+    }
+
+    @Test
+    public void testPinnedEntriesOutliveTheirTtlAndAreNotEvicted() {
+        // Given: odd values are pinned
+        ExpiringCache<Integer, Integer> cache =
+                new ExpiringCache<>(2, Duration.ofSeconds(30), 1, now::get, value -> value % 2 == 1);
+        cache.computeIfAbsent(1, k -> k);
+
+        // When
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        for (int i = 2; i < 8; i += 2) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+
+        // Then
+        assertEquals(Integer.valueOf(1), cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertEquals(Integer.valueOf(6), cache.getIfPresent(6));
+    }
+
+}
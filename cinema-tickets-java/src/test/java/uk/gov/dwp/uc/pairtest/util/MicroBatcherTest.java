@@ -0,0 +1,112 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class MicroBatcherTest {
+
+    private static MicroBatcher<CompletableFuture<String>> batcher(AtomicBoolean failNextFlush) {
+        return new MicroBatcher<>("test-batcher", 8, Duration.ofMillis(20), batch -> {
+            if (failNextFlush.getAndSet(false)) {
+                throw new AssertionError("Flush blew up");
+            }
+            for (CompletableFuture<String> item : batch) {
+                item.complete("flushed");
+            }
+        }, (item, failure) -> item.completeExceptionally(failure));
+    }
+
+    @Test
+    public void testThrowingFlushFailsItsBatchAndTheFlusherCarriesOn() throws Exception {
+        // Given
+        AtomicBoolean failNextFlush = new AtomicBoolean(true);
+        try (MicroBatcher<CompletableFuture<String>> batcher = batcher(failNextFlush)) {
+            CompletableFuture<String> lost = new CompletableFuture<>();
+
+            // When
+            batcher.submit(lost);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> lost.get(1, TimeUnit.SECONDS));
+            CompletableFuture<String> next = new CompletableFuture<>();
+            batcher.submit(next);
+
+            // Then
+            assertTrue(failure.getCause() instanceof AssertionError);
+            assertEquals("flushed", next.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEverySubmissionIsFlushedOrRejectedAcrossClose() throws Exception {
+        // Given
+        MicroBatcher<CompletableFuture<String>> batcher = batcher(new AtomicBoolean());
+        CompletableFuture<String>[] items = new CompletableFuture[20_000];
+        boolean[] rejected = new boolean[items.length];
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new CompletableFuture<>();
+                try {
+                    batcher.submit(items[i]);
+                } catch (RejectedExecutionException e) {
+                    rejected[i] = true;
+                }
+            }
+        });
+
+        // When
+        submitter.start();
+        Thread.sleep(1);
+        batcher.close();
+        submitter.join();
+
+        // Then: nothing is left waiting
+        for (int i = 0; i < items.length; i++) {
+            assertTrue("Item " + i + " was stranded", rejected[i] || items[i].isDone());
+        }
+    }
+
+    @Test
+    public void testSlowFlushDoesNotHoldUpTheNextBatch() throws Exception {
+        // Given: a first batch that stays stuck in its flush
+        CountDownLatch firstFlushing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        try (MicroBatcher<CompletableFuture<String>> batcher = new MicroBatcher<>("test-batcher", 1,
+                Duration.ofMillis(20), 2, batch -> {
+                    if (first.getAndSet(false)) {
+                        firstFlushing.countDown();
+                        try {
+                            unblock.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    batch.get(0).complete("flushed");
+                }, (item, failure) -> item.completeExceptionally(failure))) {
+            CompletableFuture<String> stuck = new CompletableFuture<>();
+            batcher.submit(stuck);
+            assertTrue(firstFlushing.await(1, TimeUnit.SECONDS));
+
+            // When
+            CompletableFuture<String> next = new CompletableFuture<>();
+            batcher.submit(next);
+
+            // Then
+            assertEquals("flushed", next.get(1, TimeUnit.SECONDS));
+            assertFalse(stuck.isDone());
+            unblock.countDown();
+            assertEquals("flushed", stuck.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package uk.gov.dwp.uc.pairtest.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final class Named extends TimerWheel.Timer {
+
+        private final String name;
+
+        private Named(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void testTimersFireInDeadlineOrderAndNeverEarly() {
+        // Given
+        TimerWheel<Named> wheel = new TimerWheel<>(TICK, 0L);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(new Named("hour"), TimeUnit.HOURS.toNanos(1));
+        wheel.schedule(new Named("second"), TimeUnit.SECONDS.toNanos(1));
+        wheel.schedule(new Named("day"), TimeUnit.DAYS.toNanos(1));
+        wheel.schedule(new Named("soon"), 15_000_000L);
+
+        // When
+        wheel.expire(TimeUnit.HOURS.toNanos(1) - 1, timer -> fired.add(timer.name));
+
+        // Then
+        assertEquals(List.of("soon", "second"), fired);
+
+        wheel.expire(TimeUnit.HOURS.toNanos(1) + TICK, timer -> fired.add(timer.name));
+        assertEquals(List.of("soon", "second", "hour"), fired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testTimersBeyondTheTopWheelStillFireOnTime() {
+        // Given
+        TimerWheel<Named> wheel = new TimerWheel<>(TICK, 0L);
+        long farOff = TimeUnit.DAYS.toNanos(400); // Well past 64^4 ticks
+        wheel.schedule(new Named("far"), farOff);
+        List<String> fired = new ArrayList<>();
+
+        // When
+        for (long now = 0; now < farOff; now += TimeUnit.HOURS.toNanos(6)) {
+            wheel.expire(now, timer -> fired.add(timer.name));
+        }
+
+        // Then
+        assertTrue(fired.isEmpty());
+        wheel.expire(farOff, timer -> fired.add(timer.name));
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    public void testCancelledAndRescheduledTimers() {
+        // Given
+        TimerWheel<Named> wheel = new TimerWheel<>(TICK, 0L);
+        Named cancelled = new Named("cancelled");
+        Named moved = new Named("moved");
+        wheel.schedule(cancelled, TimeUnit.SECONDS.toNanos(5));
+        wheel.schedule(moved, TimeUnit.SECONDS.toNanos(5));
+        List<String> fired = new ArrayList<>();
+
+        // When
+        assertTrue(wheel.cancel(cancelled));
+        wheel.schedule(moved, TimeUnit.SECONDS.toNanos(20));
+        wheel.expire(TimeUnit.SECONDS.toNanos(10), timer -> fired.add(timer.name));
+
+        // Then
+        assertTrue(fired.isEmpty());
+        assertFalse(cancelled.isScheduled());
+        assertTrue(moved.isScheduled());
+        wheel.expire(TimeUnit.SECONDS.toNanos(20), timer -> fired.add(timer.name));
+        assertEquals(List.of("moved"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+}
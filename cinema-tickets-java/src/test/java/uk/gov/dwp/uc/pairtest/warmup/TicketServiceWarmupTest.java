@@ -0,0 +1,38 @@
+package uk.gov.dwp.uc.pairtest.warmup;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TicketServiceWarmupTest {
+
+    @Test
+    public void testEveryRoundRunsEachEntryPointAndRejectionsEveryEighthRound() {
+        // Given
+        PricingEngine pricing = PricingEngine.standard();
+        TicketServiceImpl service = spy(new TicketServiceImpl(spy(TicketPaymentService.class),
+                spy(SeatReservationService.class), pricing, PurchaseMetrics.NOOP));
+
+        // When
+        WarmupSummary summary = TicketServiceWarmup.warmUp(service, pricing, 16);
+
+        // Then: 16 valid purchases through each entry point, and 6 rejections in each of rounds 0 and 8
+        assertEquals(16 * 4 + 2 * 6, summary.getPurchases());
+        assertEquals(2 * 6, summary.getRejections());
+        verify(service, times(16 + 2 * 6)).purchaseTickets(any(Long.class), ArgumentMatchers.<TicketTypeRequest>any());
+        verify(service, times(16)).purchaseOrder(anyLong(), anyLong());
+        verify(service, times(16)).purchaseTickets(any(ByteBuffer.class));
+        verify(service, times(16)).purchaseTicketsAsync(anyLong(), ArgumentMatchers.<TicketTypeRequest>any());
+    }
+
+}
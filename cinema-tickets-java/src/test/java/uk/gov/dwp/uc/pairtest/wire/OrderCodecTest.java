@@ -0,0 +1,76 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import org.junit.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseReason;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class OrderCodecTest {
+
+    @Test
+    public void testRoundTripThroughFlyweight() {
+        // Given
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 * OrderCodec.ENCODED_LENGTH);
+        OrderCodec.encode(buffer, 1L, 2, 1, 0);
+        OrderCodec.encode(buffer, Long.MAX_VALUE, 255, 0, 3);
+        OrderCodec.encode(buffer, 42L, 0, 0, 0);
+        buffer.flip();
+
+        // When
+        OrderView view = new OrderView();
+
+        // Then
+        view.wrap(buffer, OrderCodec.ENCODED_LENGTH);
+        assertEquals(Long.MAX_VALUE, view.accountId());
+        assertEquals(255, view.adults());
+        assertEquals(0, view.children());
+        assertEquals(3, view.infants());
+
+        view.wrap(buffer, 0);
+        assertEquals(1L, view.accountId());
+        assertEquals(2, view.adults());
+        assertEquals(1, view.children());
+        assertEquals(0, buffer.position()); // Reads never move the buffer
+    }
+
+    @Test
+    public void testCountsOutsideOneByteAreRefused() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderCodec.ENCODED_LENGTH);
+
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.encode(buffer, 1L, 256, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.encode(buffer, 1L, 1, -1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> new OrderView().wrap(buffer, 1));
+    }
+
+    @Test
+    public void testServiceConsumesEncodedOrdersInPlace() {
+        // Given
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        SeatReservationService seatReservationService = mock(SeatReservationService.class);
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatReservationService);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * OrderCodec.ENCODED_LENGTH);
+        OrderCodec.encode(buffer, 7L, 0, 2, 0);
+        OrderCodec.encode(buffer, 8L, 3, 2, 1);
+        buffer.flip();
+
+        // When
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(buffer));
+        ticketService.purchaseTickets(buffer);
+
+        // Then
+        assertEquals(InvalidPurchaseReason.NO_ADULT, exception.getReason());
+        verify(paymentService, times(1)).makePayment(8L, 105);
+        verify(seatReservationService, times(1)).reserveSeat(8L, 5);
+        assertThrows(BufferUnderflowException.class, () -> ticketService.purchaseTickets(buffer));
+    }
+
+}